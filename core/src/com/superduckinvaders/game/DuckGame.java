@@ -9,6 +9,7 @@ import com.badlogic.gdx.utils.BufferUtils;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.superduckinvaders.game.assets.Assets;
 import com.superduckinvaders.game.screen.StartScreen;
+import com.superduckinvaders.game.util.FixedTimestep;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -42,6 +43,15 @@ public class DuckGame extends Game {
         public boolean shootingCheat = false;
 		public boolean noHitboxCheat = false;
         ///////////////////////////////////////////////////
+        public boolean jumpPointSearch = false;
+        public boolean asyncPathfinding = true;
+        public boolean incrementalPathfinding = false;
+        public int maxPhysicsSteps = FixedTimestep.DEFAULT_MAX_STEPS;
+        public boolean simulationThread = false;
+        public boolean sweptProjectiles = false;
+        public boolean kinematicMobs = false;
+        public boolean adaptivePhysics = false;
+        ///////////////////////////////////////////////////
         public void incrementLevelCounter(){
             currentLevel += 1;
         }
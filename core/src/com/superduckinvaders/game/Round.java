@@ -1,12 +1,25 @@
 package com.superduckinvaders.game;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import com.superduckinvaders.game.ai.BestFirstPathfinder;
+import com.superduckinvaders.game.ai.FlowField;
+import com.superduckinvaders.game.ai.HierarchicalPathfinder;
+import com.superduckinvaders.game.ai.IncrementalPathfinder;
+import com.superduckinvaders.game.ai.JumpPointPathfinder;
+import com.superduckinvaders.game.ai.Pathfinder;
+import com.superduckinvaders.game.ai.PathfindingAI;
+import com.superduckinvaders.game.ai.PathfindingService;
+import com.superduckinvaders.game.ai.ReplanScheduler;
 import com.superduckinvaders.game.assets.Assets;
 import com.superduckinvaders.game.entity.*;
 import com.superduckinvaders.game.entity.item.CollectItem;
@@ -24,11 +37,22 @@ import com.superduckinvaders.game.objective.SurviveObjective;
 import com.superduckinvaders.game.screen.GameScreen;
 import com.superduckinvaders.game.screen.LoseScreen;
 import com.superduckinvaders.game.screen.WinScreen;
+import com.superduckinvaders.game.util.BodyActivator;
 import com.superduckinvaders.game.util.Collision;
+import com.superduckinvaders.game.util.ContactTable;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.PhysicsGovernor;
+import com.superduckinvaders.game.util.RegionMap;
+import com.superduckinvaders.game.util.RenderSnapshot;
+import com.superduckinvaders.game.util.SpatialHash;
+import com.superduckinvaders.game.util.TerrainMap;
+import com.superduckinvaders.game.util.TileRectangles;
 import com.superduckinvaders.game.util.CustomContactListener;
 import com.superduckinvaders.game.util.RayCast;
+import com.superduckinvaders.game.util.TileGrid;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -41,6 +65,45 @@ public class Round {
      */
     public static final int UPDATE_DISTANCE = DuckGame.GAME_WIDTH / 2;
 
+    /**
+     * How many times to pick a new spot for a mob that would spawn where it can't reach the player.
+     */
+    public static final int SPAWN_REROLLS = 10;
+
+    /**
+     * How far entities must be from the player before their bodies stop being simulated. A little further than
+     * UPDATE_DISTANCE, so bodies at the edge of the screen don't flicker between asleep and awake.
+     */
+    public static final int SLEEP_DISTANCE = UPDATE_DISTANCE + UPDATE_DISTANCE / 4;
+
+    /**
+     * How near mobs must come to the player to be given a body. Further away they are dormant, and cost Box2D
+     * nothing.
+     */
+    public static final int MATERIALISE_DISTANCE = UPDATE_DISTANCE * 2;
+
+    /**
+     * How far mobs must be from the player to lose their body again.
+     */
+    public static final int DEMATERIALISE_DISTANCE = MATERIALISE_DISTANCE + UPDATE_DISTANCE / 4;
+
+    /**
+     * The size of the cells the entity index sorts characters and projectiles into, in pixels.
+     */
+    public static final int ENTITY_CELL_SIZE = 64;
+
+    /**
+     * How near entities must be to the player to be looked at each update at all. Everything that can happen to an
+     * entity in the game loop happens within DEMATERIALISE_DISTANCE, and a little more lets mobs be put back to sleep
+     * once they pass it.
+     */
+    public static final int ACTIVE_DISTANCE = DEMATERIALISE_DISTANCE + UPDATE_DISTANCE / 4;
+
+    /**
+     * The order entities are drawn in: items on the floor, then characters, then projectiles, then particles.
+     */
+    private static final Comparator<Entity> DRAW_ORDER = (a, b) -> Integer.compare(drawLayer(a), drawLayer(b));
+
     /**
      * The GameTest instance this Round belongs to.
      */
@@ -60,6 +123,76 @@ public class Round {
     private TiledMapTileLayer obstaclesLayer;
     private TiledMapTileLayer collisionLayer;
 
+    /**
+     * Which tiles mobs can walk on, built from the collision, chosen obstacles and water layers.
+     */
+    private TileGrid navigationGrid;
+
+    /**
+     * The walls and obstacles, which stop every body and raycast.
+     */
+    private TileGrid solidGrid;
+
+    /**
+     * The terrain of each tile.
+     */
+    private TerrainMap terrainMap;
+
+    /**
+     * Which parts of the navigation grid can be reached from each other.
+     */
+    private RegionMap regionMap;
+
+    /**
+     * Line of sight over the tiles that block raycasts: walls and obstacles, but not water.
+     */
+    private LineOfSight lineOfSight;
+
+    /**
+     * Shared flow field leading every chasing mob towards the player.
+     */
+    private FlowField flowField;
+
+    /**
+     * Pathfinder for long routes across the map, precomputed when the round starts.
+     */
+    private Pathfinder pathfinder;
+
+    /**
+     * Pathfinder mobs use to search for routes to the player.
+     */
+    private Pathfinder searchPathfinder;
+
+    /**
+     * Background workers that search for routes, or null if searches run during the update.
+     */
+    private PathfindingService pathfindingService;
+
+    /**
+     * Incremental searches lent to mobs while they are active, or null if mobs share the search pathfinder.
+     */
+    private Pool<IncrementalPathfinder> incrementalPathfinders;
+
+    /**
+     * Decides which mobs may replan their route each update.
+     */
+    private ReplanScheduler replanScheduler;
+
+    /**
+     * Puts the bodies of distant entities to sleep.
+     */
+    private BodyActivator bodyActivator;
+
+    /**
+     * How far rendering is between the last two physics steps, from 0 to 1.
+     */
+    private float renderAlpha = 1;
+
+    /**
+     * Whether this Round has finished and been disposed of. Set on the simulation thread and read on the GL thread.
+     */
+    private volatile boolean disposed = false;
+
     /**
      * The player.
      */
@@ -80,6 +213,49 @@ public class Round {
      */
     public World world;
 
+    /**
+     * Reused for every Box2D query so checks made each update don't allocate. The world is only ever queried from
+     * the game thread, so one of each is enough.
+     */
+    private Collision.QueryPoint pointQuery;
+    private Collision.QueryArea areaQuery;
+    private RayCast.RayCastCB rayCastCallback = new RayCast.RayCastCB(PhysicsEntity.WORLD_BITS);
+    private Vector2 rayStart = new Vector2(), rayEnd = new Vector2();
+
+    /**
+     * Queues contacts during each world step and hands them to the entities afterwards.
+     */
+    private CustomContactListener contactListener;
+
+    /**
+     * Moves projectiles without Box2D bodies, if the session asks for it.
+     */
+    private ProjectileSystem projectileSystem;
+
+    /**
+     * Where every entity is. Entities are added as they are made and taken out as they are removed, and each update
+     * moves only those near the player, so culling, drawing and targeting cost what is nearby rather than everything
+     * in the round.
+     */
+    private SpatialHash<Entity> entityIndex;
+
+    /**
+     * The projectiles with bodies. These are always kept up to date in the index, however far they fly.
+     */
+    private List<Projectile> projectiles = new ArrayList<>();
+
+    /**
+     * Reused to hold the entities near the player, and those near each projectile, during each update, and those on
+     * screen and on the minimap during each snapshot.
+     */
+    private final Array<Entity> activeEntities = new Array<Entity>(false, 128, Entity.class);
+    private final Array<Entity> nearbyEntities = new Array<Entity>(false, 16, Entity.class);
+
+    /**
+     * Chooses the solver iterations for each step from how long steps take, if the session asks for it.
+     */
+    private PhysicsGovernor physicsGovernor;
+
     /**
      * The screen this round belongs to.
      */
@@ -96,8 +272,17 @@ public class Round {
         this.map = Assets.maps[DuckGame.session.currentLevel-1];
         
         world = new World(Vector2.Zero.cpy(), true);
+        pointQuery = new Collision.QueryPoint(world);
+        areaQuery = new Collision.QueryArea(world);
         
-        world.setContactListener(new CustomContactListener());
+        ContactTable contactTable = new ContactTable();
+        Projectile.registerContacts(contactTable);
+        Item.registerContacts(contactTable);
+        contactListener = new CustomContactListener(contactTable);
+        world.setContactListener(contactListener);
+        if (DuckGame.session.adaptivePhysics) {
+            physicsGovernor = new PhysicsGovernor();
+        }
 
         // Choose which obstacles to use.
         obstaclesLayer = chooseObstacles();
@@ -106,7 +291,38 @@ public class Round {
         tileWidth = collisionLayer.getTileWidth();
         tileHeight = collisionLayer.getTileHeight();
 
-        createEnvironmentBodies();
+        // Walls and obstacles block everything, but only mobs are stopped by water.
+        solidGrid = createGrid(getCollisionLayer(), getObstaclesLayer());
+        createEnvironmentBodies(solidGrid, createGrid(getWaterLayer()));
+        navigationGrid = createGrid(getCollisionLayer(), getObstaclesLayer(), getWaterLayer());
+        regionMap = new RegionMap(navigationGrid);
+        terrainMap = new TerrainMap(collisionLayer.getWidth(), collisionLayer.getHeight(), (int) tileWidth, (int) tileHeight);
+        terrainMap.setLayer(getWaterLayer(), TerrainMap.Terrain.WATER);
+        terrainMap.setLayer(getCollisionLayer(), TerrainMap.Terrain.SOLID);
+        terrainMap.setLayer(getObstaclesLayer(), TerrainMap.Terrain.SOLID);
+        lineOfSight = new LineOfSight(solidGrid);
+        if (DuckGame.session.sweptProjectiles) {
+            projectileSystem = new ProjectileSystem(this, lineOfSight, Assets.projectile);
+        }
+        flowField = new FlowField(navigationGrid, UPDATE_DISTANCE / (int) tileWidth);
+        pathfinder = new HierarchicalPathfinder(navigationGrid, HierarchicalPathfinder.DEFAULT_CLUSTER_SIZE);
+        searchPathfinder = createSearchPathfinder();
+        if (DuckGame.session.asyncPathfinding) {
+            pathfindingService = new PathfindingService(PathfindingService.defaultThreads(), this::createSearchPathfinder,
+                    () -> new HierarchicalPathfinder(navigationGrid, HierarchicalPathfinder.DEFAULT_CLUSTER_SIZE));
+        }
+        if (DuckGame.session.incrementalPathfinding) {
+            incrementalPathfinders = new Pool<IncrementalPathfinder>() {
+                @Override
+                protected IncrementalPathfinder newObject() {
+                    return new IncrementalPathfinder(navigationGrid);
+                }
+            };
+        }
+        replanScheduler = new ReplanScheduler(ReplanScheduler.DEFAULT_BUDGET_MICROS);
+        entityIndex = new SpatialHash<Entity>(getMapWidth(), getMapHeight(), ENTITY_CELL_SIZE);
+        bodyActivator = new BodyActivator(getMapWidth(), getMapHeight(), BodyActivator.DEFAULT_REGION_SIZE,
+                UPDATE_DISTANCE, SLEEP_DISTANCE);
 
         // Determine starting coordinates for player (0, 0 default).
         int startX = Integer.parseInt(map.getProperties().get("StartX", "0", String.class)) * getTileWidth();
@@ -115,7 +331,7 @@ public class Round {
         player = new Player(this, startX, startY);
 
         entities = new ArrayList<>(128);
-        entities.add(player);
+        addEntity(player);
 
         //Pickups
         if (parent.session.currentLevel == 1){
@@ -156,7 +372,7 @@ public class Round {
 
                 Item objective = new CollectItem(this, objectiveX, objectiveY);
                 setObjective(new CollectObjective(this, objective));
-                entities.add(objective);
+                addEntity(objective);
                 break;
             case "kill":
             default:
@@ -194,36 +410,42 @@ public class Round {
         Entity construct(float x, float y, float w, float h);
     }
 
-    private void layerMap(TiledMapTileLayer layer, Constructor constructor){
-        if (layer == null){
-            return;
-        }
-
+    private void createRectangles(TileGrid grid, Constructor constructor){
         float tw = collisionLayer.getTileWidth();
         float th = collisionLayer.getTileHeight();
 
-        for (int x = 0; x < layer.getWidth(); x++) {
-            for (int y = 0; y < layer.getHeight(); y++) {
-                if (layer.getCell(x, y) != null) {
-                    float tileX = x * tw;
-                    float tileY = y * th;
-                    // obstacleEntities.add(new Obstacle(this, tileX, tileY, tw, th));
-                    constructor.construct(tileX, tileY, tw, th);
-                }
-            }
+        for (Rectangle rectangle : TileRectangles.merge(grid)) {
+            constructor.construct(rectangle.x * tw, rectangle.y * th, rectangle.width * tw, rectangle.height * th);
+        }
+    }
+
+
+    /**
+     * Builds a grid with every non-empty cell of some map layers blocked.
+     */
+    private TileGrid createGrid(TiledMapTileLayer... layers) {
+        TileGrid grid = new TileGrid(collisionLayer.getWidth(), collisionLayer.getHeight(), (int) tileWidth, (int) tileHeight);
+        for (TiledMapTileLayer layer : layers) {
+            grid.blockLayer(layer);
         }
+        return grid;
     }
 
+    private Pathfinder createSearchPathfinder() {
+        if (DuckGame.session.jumpPointSearch) {
+            return new JumpPointPathfinder(navigationGrid);
+        }
+        return new BestFirstPathfinder(navigationGrid, PathfindingAI.PATHFINDING_ITERATION_LIMIT);
+    }
 
-    private void createEnvironmentBodies() {
+    private void createEnvironmentBodies(TileGrid solidGrid, TileGrid waterGrid) {
         Constructor createObstacle = (float x, float y, float w, float h) -> (new Obstacle(this, x, y, w, h));
         Constructor createWater = (float x, float y, float w, float h) -> (new WaterEntity(this, x, y, w, h));
 
-        layerMap(getCollisionLayer(), createObstacle);
-        layerMap(getObstaclesLayer(), createObstacle);
-        layerMap(getWaterLayer(),     createWater   );
+        // One body per merged block of tiles rather than one per tile keeps the broadphase small.
+        createRectangles(solidGrid, createObstacle);
+        createRectangles(waterGrid, createWater);
 
-        
         float mapHeight = getMapHeight();
         float mapWidth = getMapWidth();
 
@@ -245,63 +467,238 @@ public class Round {
      * @return whether the point is in the body
      */
     public boolean collidePoint(float x, float y) {
-        return collidePoint(new Vector2(x, y));
+        return collidePoint(x, y, PhysicsEntity.WORLD_BITS);
     }
     public boolean collidePoint(Vector2 p) {
-        return collidePoint(p, PhysicsEntity.WORLD_BITS);
+        return collidePoint(p.x, p.y, PhysicsEntity.WORLD_BITS);
     }
     public boolean collidePoint(Vector2 p, short maskBits) {
-        p.scl(PhysicsEntity.METRES_PER_PIXEL);
-        Collision.Query q = new Collision.QueryPoint(world, p, maskBits);
-        return q.query();
+        return collidePoint(p.x, p.y, maskBits);
+    }
+
+    /**
+     * Gets whether a point is inside anything matching a mask. The map itself is looked up in the tile grid; Box2D
+     * is only queried when the mask includes moving bodies.
+     *
+     * @param x        the x coordinate of the point
+     * @param y        the y coordinate of the point
+     * @param maskBits the categories of body to test against
+     * @return whether the point is inside a matching body
+     */
+    public boolean collidePoint(float x, float y, short maskBits) {
+        if ((maskBits & PhysicsEntity.WORLD_BITS) != 0 && solidGrid.isBlockedAt(x, y)) {
+            return true;
+        }
+        if ((maskBits & ~PhysicsEntity.WORLD_BITS) == 0) {
+            return false;
+        }
+        return pointQuery.set(x * PhysicsEntity.METRES_PER_PIXEL, y * PhysicsEntity.METRES_PER_PIXEL, maskBits).query();
     }
     
     public boolean collideArea(Vector2 pos, Vector2 size) {
-        return collideArea(pos, size, PhysicsEntity.WORLD_BITS);
+        return collideArea(pos.x, pos.y, size.x, size.y, PhysicsEntity.WORLD_BITS);
     }
     public boolean collideArea(Vector2 pos, Vector2 size, short maskBits) {
-        pos.scl(PhysicsEntity.METRES_PER_PIXEL);
-        size.scl(PhysicsEntity.METRES_PER_PIXEL);
-        Collision.Query q = new Collision.QueryArea(world, pos, size, maskBits);
-        return q.query();
+        return collideArea(pos.x, pos.y, size.x, size.y, maskBits);
+    }
+
+    /**
+     * Gets whether a rectangle overlaps anything matching a mask. The map itself is looked up in the tile grid; Box2D
+     * is only queried when the mask includes moving bodies.
+     *
+     * @param x        the x coordinate of the bottom left corner of the rectangle
+     * @param y        the y coordinate of the bottom left corner of the rectangle
+     * @param width    the width of the rectangle
+     * @param height   the height of the rectangle
+     * @param maskBits the categories of body to test against
+     * @return whether the rectangle overlaps a matching body
+     */
+    public boolean collideArea(float x, float y, float width, float height, short maskBits) {
+        if ((maskBits & PhysicsEntity.WORLD_BITS) != 0 && solidGrid.isAreaBlocked(x, y, x + width, y + height)) {
+            return true;
+        }
+        if ((maskBits & ~PhysicsEntity.WORLD_BITS) == 0) {
+            return false;
+        }
+        float scale = PhysicsEntity.METRES_PER_PIXEL;
+        return areaQuery.set(x * scale, y * scale, width * scale, height * scale, maskBits).query();
     }
     
     public boolean rayCast(Vector2 pos1, Vector2 pos2){
-        return rayCast(pos1, pos2, PhysicsEntity.WORLD_BITS);
+        return rayCast(pos1.x, pos1.y, pos2.x, pos2.y, PhysicsEntity.WORLD_BITS);
     }
     public boolean rayCast(Vector2 pos1, Vector2 pos2, short maskBits) {
-        RayCast.RayCastCB r = new RayCast.RayCastCB(maskBits);
-        world.rayCast(
-                r,
-                pos1.cpy().scl(PhysicsEntity.METRES_PER_PIXEL),
-                pos2.cpy().scl(PhysicsEntity.METRES_PER_PIXEL)
-        );
-        return r.clear;
+        return rayCast(pos1.x, pos1.y, pos2.x, pos2.y, maskBits);
+    }
+
+    /**
+     * Gets whether the closest body a ray hits doesn't match a mask, by raycasting the Box2D world.
+     *
+     * @param x1       the x coordinate of the start of the ray
+     * @param y1       the y coordinate of the start of the ray
+     * @param x2       the x coordinate of the end of the ray
+     * @param y2       the y coordinate of the end of the ray
+     * @param maskBits the categories of body that block the ray
+     * @return whether the ray is clear
+     */
+    public boolean rayCast(float x1, float y1, float x2, float y2, short maskBits) {
+        float scale = PhysicsEntity.METRES_PER_PIXEL;
+        world.rayCast(rayCastCallback.reset(maskBits), rayStart.set(x1 * scale, y1 * scale), rayEnd.set(x2 * scale, y2 * scale));
+        return rayCastCallback.clear;
     }
     
+    /**
+     * Gets whether nothing in the map blocks the straight line between two points. Uses the tile grid, so it is
+     * much cheaper than rayCast for checks made every update.
+     *
+     * @param pos1 the start of the line
+     * @param pos2 the end of the line
+     * @return whether the line is clear
+     */
+    public boolean hasLineOfSight(Vector2 pos1, Vector2 pos2) {
+        return lineOfSight.isClear(pos1.x, pos1.y, pos2.x, pos2.y);
+    }
+
+    /**
+     * Gets whether a box can move in a straight line without hitting the map, using the tile grid.
+     *
+     * @param pos    the centre of the box
+     * @param size   the size of the box
+     * @param target where the centre of the box moves to
+     * @return whether the path is clear
+     */
     public boolean pathIsClear(Vector2 pos, Vector2 size, Vector2 target){
-        float width  = size.x;
-        float height = size.y;
-        Vector2[] corners = {new Vector2( width/2,  height/2),
-                             new Vector2(-width/2,  height/2),
-                             new Vector2(-width/2,  -height/2),
-                             new Vector2(width/2,  -height/2)
-                         };
-        boolean result = true;
-        
-        for (Vector2 corner : corners){
-            result = result && rayCast(corner.cpy().add(pos), corner.cpy().add(target));
-            
+        return lineOfSight.isBoxClear(pos.x, pos.y, size.x, size.y, target.x, target.y);
+    }
+
+    /**
+     * Gets whether a box can move in a straight line without hitting the map by raycasting from each corner.
+     * Slower than pathIsClear, but exact for anything that isn't tile aligned.
+     *
+     * @param pos    the centre of the box
+     * @param size   the size of the box
+     * @param target where the centre of the box moves to
+     * @return whether the path is clear
+     */
+    public boolean pathIsClearExact(Vector2 pos, Vector2 size, Vector2 target){
+        float halfWidth  = size.x / 2;
+        float halfHeight = size.y / 2;
+
+        for (int corner = 0; corner < 4; corner++) {
+            float offsetX = corner == 0 || corner == 3 ? halfWidth : -halfWidth;
+            float offsetY = corner < 2 ? halfHeight : -halfHeight;
+            if (!rayCast(pos.x + offsetX, pos.y + offsetY, target.x + offsetX, target.y + offsetY, PhysicsEntity.WORLD_BITS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Copies what the game screen needs to draw this Round into a snapshot, so it can be drawn while the next update
+     * runs.
+     *
+     * @param snapshot the empty snapshot to fill in
+     */
+    public void snapshot(RenderSnapshot snapshot) {
+        // The cameras stop at the edges of the map, so either view can reach a whole view's width from the player.
+        float playerX = player.getCentreX(), playerY = player.getCentreY();
+        entityIndex.query(playerX - UPDATE_DISTANCE, playerY - DuckGame.GAME_HEIGHT / 2,
+                playerX + UPDATE_DISTANCE, playerY + DuckGame.GAME_HEIGHT / 2, activeEntities);
+        activeEntities.sort(DRAW_ORDER);
+        for (int i = 0; i < activeEntities.size; i++) {
+            activeEntities.get(i).snapshot(snapshot);
+        }
+        entityIndex.query(playerX - DuckGame.GAME_HEIGHT, playerY - DuckGame.GAME_HEIGHT,
+                playerX + DuckGame.GAME_HEIGHT, playerY + DuckGame.GAME_HEIGHT, activeEntities);
+        for (int i = 0; i < activeEntities.size; i++) {
+            Entity entity = activeEntities.get(i);
+            if (entity instanceof Mob) {
+                snapshot.addMob(entity.getCentreX(), entity.getCentreY());
+            }
+        }
+        activeEntities.clear();
+        if (projectileSystem != null) {
+            projectileSystem.snapshot(snapshot);
+        }
+
+        Vector2 playerPos = player.getRenderPosition();
+        snapshot.playerX = playerPos.x;
+        snapshot.playerY = playerPos.y;
+        snapshot.playerCentreX = playerPos.x + player.getWidth() / 2;
+        snapshot.playerCentreY = playerPos.y + player.getHeight() / 2;
+
+        snapshot.objectiveString = objective == null ? "" : objective.getObjectiveString();
+        snapshot.score = player.getScore();
+        snapshot.currentHealth = player.getCurrentHealth();
+        snapshot.maximumHealth = player.getMaximumHealth();
+        snapshot.flyingTimer = player.getFlyingTimer();
+        for (Player.Pickup pickup : player.pickupMap.keySet()) {
+            snapshot.pickups.add(pickup.getTexture());
         }
-        
-        return result;
     }
 
+    /**
+     * Gets which layer an entity is drawn in.
+     *
+     * @param entity the entity
+     * @return its layer, lower layers being drawn first
+     */
+    private static int drawLayer(Entity entity) {
+        if (entity instanceof Item) {
+            return 0;
+        } else if (entity instanceof TheCharacter) {
+            return 1;
+        } else if (entity instanceof Projectile) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    /**
+     * Gets whether a mob made at a point should start out dormant, without a body.
+     *
+     * @param centre the centre of the mob
+     * @return whether the point is too far from the player for the mob to need a body
+     */
+    public boolean isDormantAt(Vector2 centre) {
+        return player != null && centre.dst(player.getCentre()) > MATERIALISE_DISTANCE;
+    }
+
+    /**
+     * Gives a mob its body when it comes near the player, or a projectile comes near it, and takes the body away
+     * again once it is left behind.
+     *
+     * @param mob      the mob
+     * @param distance how far the mob is from the player
+     */
+    private void updateDormancy(Mob mob, float distance) {
+        if (mob.isDormant()) {
+            if (distance < MATERIALISE_DISTANCE || bodyActivator.isProjectileNear(mob.getX(), mob.getY())) {
+                mob.materialise();
+            }
+        } else if (distance > DEMATERIALISE_DISTANCE) {
+            Vector2 centre = mob.getCentre();
+            if (!bodyActivator.isProjectileNear(centre.x, centre.y)) {
+                mob.dematerialise();
+            }
+        }
+    }
 
     private void spawnRandomMobs(int amount, int minX, int minY, int maxX, int maxY) {
+        Vector2 playerCentre = player.getCentre();
+        int rerolls = 0;
         for (int i = 0; i < amount;) {
             int x = MathUtils.random(minX, maxX);
             int y = MathUtils.random(minY, maxY);
+            // Try a few more spots before putting a mob somewhere it can never reach the player.
+            if (rerolls < SPAWN_REROLLS && !regionMap.mayConnect(x, y, playerCentre.x, playerCentre.y)) {
+                rerolls++;
+                continue;
+            }
+            rerolls = 0;
             float randNum = MathUtils.random();
             if (!collidePoint(x, y))
                 if (randNum>0.4) {
@@ -323,7 +720,7 @@ public class Round {
 
 
     public Mob addMob(Mob mob) {
-        entities.add(mob);
+        addEntity(mob);
         return mob;
     }
 
@@ -354,6 +751,167 @@ public class Round {
         return (TiledMapTileLayer) getMap().getLayers().get("Water");
     }
 
+    /**
+     * Gets the grid of tiles that mobs can't walk through.
+     * @return this Round's navigation grid
+     */
+    public TileGrid getNavigationGrid() {
+        return navigationGrid;
+    }
+
+    /**
+     * Gets the flow field leading towards the player. It is kept up to date at the start of every update.
+     * @return this Round's flow field
+     */
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * Gets the pathfinder for long routes across the map.
+     * @return this Round's hierarchical pathfinder
+     */
+    public Pathfinder getPathfinder() {
+        return pathfinder;
+    }
+
+    /**
+     * Gets the terrain of each tile, for effects like swimming.
+     * @return this Round's terrain map
+     */
+    public TerrainMap getTerrainMap() {
+        return terrainMap;
+    }
+
+    /**
+     * Gets which parts of the map can be reached from each other.
+     * @return this Round's region map
+     */
+    public RegionMap getRegionMap() {
+        return regionMap;
+    }
+
+    /**
+     * Gets the pathfinder mobs use to search for routes to the player.
+     * @return this Round's search pathfinder
+     */
+    public Pathfinder getSearchPathfinder() {
+        return searchPathfinder;
+    }
+
+    /**
+     * Lends an incremental search to an active mob. Each holds state for every tile, so only active mobs have one.
+     * @return an incremental search with no state from whoever used it before
+     */
+    public IncrementalPathfinder obtainIncrementalPathfinder() {
+        return incrementalPathfinders.obtain();
+    }
+
+    /**
+     * Takes back an incremental search from a mob that has gone dormant or been removed.
+     * @param pathfinder the search lent by obtainIncrementalPathfinder
+     */
+    public void freeIncrementalPathfinder(IncrementalPathfinder pathfinder) {
+        incrementalPathfinders.free(pathfinder);
+    }
+
+    /**
+     * Gets the background workers that search for routes.
+     * @return this Round's pathfinding service, or null if searches aren't run in the background
+     */
+    public PathfindingService getPathfindingService() {
+        return pathfindingService;
+    }
+
+    /**
+     * Gets the scheduler that decides which mobs may replan each update. Its budget and queue depth can be read
+     * to see how much pathfinding is going on.
+     * @return this Round's replan scheduler
+     */
+    public ReplanScheduler getReplanScheduler() {
+        return replanScheduler;
+    }
+
+    /**
+     * Gets how far rendering is between the last two physics steps.
+     * @return the interpolation alpha, from 0 to 1
+     */
+    public float getRenderAlpha() {
+        return renderAlpha;
+    }
+
+    /**
+     * Sets how far rendering is between the last two physics steps.
+     * @param renderAlpha the interpolation alpha, from 0 to 1
+     */
+    public void setRenderAlpha(float renderAlpha) {
+        this.renderAlpha = renderAlpha;
+    }
+
+    /**
+     * @return whether this Round has finished and been disposed of
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Gets what puts distant bodies to sleep. Its radii can be changed, and it counts how many bodies are awake.
+     * @return this Round's body activator
+     */
+    public BodyActivator getBodyActivator() {
+        return bodyActivator;
+    }
+
+    /**
+     * Gets the index of where every entity is.
+     * @return this Round's entity index
+     */
+    public SpatialHash<Entity> getEntityIndex() {
+        return entityIndex;
+    }
+
+    /**
+     * Finds the entities whose boxes overlap or touch an area.
+     *
+     * @param minX    the x coordinate of the left of the area
+     * @param minY    the y coordinate of the bottom of the area
+     * @param maxX    the x coordinate of the right of the area
+     * @param maxY    the y coordinate of the top of the area
+     * @param results emptied, then filled with what was found
+     */
+    public void findEntities(float minX, float minY, float maxX, float maxY, Array<Entity> results) {
+        entityIndex.query(minX, minY, maxX, maxY, results);
+    }
+
+    /**
+     * Finds the entities nearest to a point.
+     *
+     * @param x       the x coordinate of the point
+     * @param y       the y coordinate of the point
+     * @param count   the most entities to find
+     * @param results emptied, then filled with what was found, nearest first
+     */
+    public void findNearestEntities(float x, float y, int count, Array<Entity> results) {
+        entityIndex.nearest(x, y, count, results);
+    }
+
+    /**
+     * Gets what chooses the solver iterations for each step.
+     * @return this Round's physics governor, or null if every step uses the same iterations
+     */
+    public PhysicsGovernor getPhysicsGovernor() {
+        return physicsGovernor;
+    }
+
+    /**
+     * Gets what moves projectiles without Box2D bodies.
+     * @return this Round's projectile system, or null if projectiles have bodies
+     */
+    public ProjectileSystem getProjectileSystem() {
+        return projectileSystem;
+    }
+
     /**
      * Gets the obstacles layer of the map
      * @return this Round's obstacles map layer or null if there isn't one
@@ -410,10 +968,7 @@ public class Round {
      * @return whether or not the map tile is blocked
      */
     public boolean isTileBlocked(int x, int y) {
-        int tileX = x / getTileWidth();
-        int tileY = y / getTileHeight();
-
-        return getCollisionLayer().getCell(tileX, tileY) != null || (getObstaclesLayer() != null && getObstaclesLayer().getCell(tileX, tileY) != null);
+        return solidGrid.isBlockedAt(x, y);
     }
 
     /**
@@ -448,13 +1003,49 @@ public class Round {
     }
 
     /**
-     * Adds an entity to the entity list.
+     * Adds an entity to the entity list and the entity index.
      *
      * @param newEntity new entity of any type
      */
-    // TODO: remove this once tests are complete
     public void addEntity(Entity newEntity) {
         entities.add(newEntity);
+        newEntity.setIndexHandle(entityIndex.insert(newEntity, newEntity.getX(), newEntity.getY(),
+                newEntity.getX() + newEntity.getWidth(), newEntity.getY() + newEntity.getHeight()));
+        if (newEntity instanceof Projectile) {
+            projectiles.add((Projectile) newEntity);
+        }
+    }
+
+    /**
+     * Brings an entity's box in the index up to date with where it is now.
+     *
+     * @param entity the entity
+     */
+    private void moveInIndex(Entity entity) {
+        if (entity.getIndexHandle() == -1) {
+            return;
+        }
+        float halfWidth = entity.getWidth() / 2, halfHeight = entity.getHeight() / 2;
+        float x = entity.getCentreX(), y = entity.getCentreY();
+        entityIndex.move(entity.getIndexHandle(), x - halfWidth, y - halfHeight, x + halfWidth, y + halfHeight);
+    }
+
+    /**
+     * Takes a removed entity out of the index, scoring it if it was a dead mob. Does nothing if it has already been
+     * taken out.
+     *
+     * @param entity the removed entity
+     */
+    private void retire(Entity entity) {
+        if (entity.getIndexHandle() == -1) {
+            return;
+        }
+        if (entity instanceof Mob && ((Mob) entity).isDead()) {
+            player.addScore((int) (10 * (player.hasPickup(Player.Pickup.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1)));
+        }
+        entity.dispose();
+        entityIndex.remove(entity.getIndexHandle());
+        entity.setIndexHandle(-1);
     }
 
     /**
@@ -476,7 +1067,12 @@ public class Round {
     }
 
     public void createProjectile(Vector2 pos, Vector2 velocity, int damage, PhysicsEntity owner) {
-        entities.add(new Projectile(this, pos, velocity, damage, owner));
+        if (projectileSystem != null) {
+            projectileSystem.fire(pos.x, pos.y, velocity.x * PhysicsEntity.PIXELS_PER_METRE,
+                    velocity.y * PhysicsEntity.PIXELS_PER_METRE, damage, owner);
+        } else {
+            addEntity(new Projectile(this, pos, velocity, damage, owner));
+        }
         Assets.gunShot.setVolume(Assets.gunShot.play(), 0.5f);
 
 
@@ -491,7 +1087,7 @@ public class Round {
      * @param animation the animation to use for the particle effect
      */
     public void createParticle(float x, float y, float duration, Animation animation) {
-        entities.add(new Particle(this, x - animation.getKeyFrame(0).getRegionWidth() / 2, y - animation.getKeyFrame(0).getRegionHeight() / 2, duration, animation));
+        addEntity(new Particle(this, x - animation.getKeyFrame(0).getRegionWidth() / 2, y - animation.getKeyFrame(0).getRegionHeight() / 2, duration, animation));
     }
 
     /**
@@ -513,7 +1109,7 @@ public class Round {
      * @param pickup the powerup to grant to the player
      */
     public void createPickup(float x, float y, Player.Pickup pickup) {
-        entities.add(new PickupItem(this, x, y, pickup, pickup.getDuration()));
+        addEntity(new PickupItem(this, x, y, pickup, pickup.getDuration()));
     }
 
     /**
@@ -522,22 +1118,99 @@ public class Round {
      * @param delta the time elapsed since the last update
      */
     public void update(float delta) {
-        world.step(delta, 6, 2);
+        Vector2 playerCentre = player.getCentre();
+        bodyActivator.update(world, playerCentre.x, playerCentre.y);
+
+        // Everything further away is dormant or asleep, so nothing moves it and it needs no attention.
+        entityIndex.queryRadius(playerCentre.x, playerCentre.y, ACTIVE_DISTANCE, activeEntities);
+        for (int i = 0; i < activeEntities.size; i++) {
+            if (activeEntities.get(i) instanceof PhysicsEntity) {
+                ((PhysicsEntity) activeEntities.get(i)).savePreviousCentre();
+            }
+        }
+        for (int i = 0; i < projectiles.size(); i++) {
+            projectiles.get(i).savePreviousCentre();
+        }
+        if (physicsGovernor != null) {
+            long start = System.nanoTime();
+            world.step(delta, physicsGovernor.getVelocityIterations(), physicsGovernor.getPositionIterations());
+            physicsGovernor.update(System.nanoTime() - start, world.getBodyCount(), world.getContactCount());
+        } else {
+            world.step(delta, PhysicsGovernor.DEFAULT_VELOCITY_ITERATIONS, PhysicsGovernor.DEFAULT_POSITION_ITERATIONS);
+        }
+        contactListener.dispatch();
+        for (int i = 0; i < activeEntities.size; i++) {
+            moveInIndex(activeEntities.get(i));
+        }
+        for (int i = 0; i < projectiles.size(); i++) {
+            moveInIndex(projectiles.get(i));
+        }
+        // Projectiles can kill things out of range of the player, so the whole list is checked while any fly.
+        boolean anyRemoved = !projectiles.isEmpty();
+        if (projectileSystem != null && projectileSystem.getCount() > 0) {
+            anyRemoved = true;
+            projectileSystem.update(delta, entityIndex);
+        }
 
-        for (int i = 0; i < entities.size();i++) {
-            Entity entity = entities.get(i);
+        // Only rebuilt when the player moves onto a different tile.
+        playerCentre = player.getCentre();
+        flowField.update(navigationGrid.toTileX(playerCentre.x), navigationGrid.toTileY(playerCentre.y));
+
+        float playerX = player.getX(), playerY = player.getY();
+        for (int i = 0; i < activeEntities.size; i++) {
+            Entity entity = activeEntities.get(i);
 
             if (entity.isRemoved()) {
-                if (entity instanceof Mob && ((Mob) entity).isDead()) {
-                    player.addScore((int) (10 * (player.hasPickup(Player.Pickup.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1)));
+                retire(entity);
+                anyRemoved = true;
+            } else {
+                float distance = Vector2.dst(entity.getCentreX(), entity.getCentreY(), playerX, playerY);
+                if (entity instanceof Mob) {
+                    updateDormancy((Mob) entity, distance);
                 }
-                entity.dispose();
-                entities.remove(i--);
-            } else if (entity.distanceTo(player.getX(), player.getY()) < UPDATE_DISTANCE){
                 // Don't bother updating entities that aren't on screen.
-                entity.update(delta);
+                if (distance < UPDATE_DISTANCE) {
+                    entity.update(delta);
+                } else if (entity instanceof Mob) {
+                    ((Mob) entity).stopMoving();
+                }
+            }
+        }
+        activeEntities.clear();
+
+        // Projectiles can fly out of range of the player, and dormant mobs they come near need their bodies to be hit.
+        for (int i = 0; i < projectiles.size(); i++) {
+            Projectile projectile = projectiles.get(i);
+            if (projectile.isRemoved()) {
+                retire(projectile);
+                anyRemoved = true;
+                continue;
+            }
+            float x = projectile.getCentreX(), y = projectile.getCentreY();
+            if (Vector2.dst(x, y, playerCentre.x, playerCentre.y) + BodyActivator.DEFAULT_REGION_SIZE < ACTIVE_DISTANCE) {
+                continue;
+            }
+            entityIndex.queryRadius(x, y, BodyActivator.DEFAULT_REGION_SIZE, nearbyEntities);
+            for (int j = 0; j < nearbyEntities.size; j++) {
+                if (nearbyEntities.get(j) instanceof Mob && ((Mob) nearbyEntities.get(j)).isDormant()) {
+                    ((Mob) nearbyEntities.get(j)).materialise();
+                }
             }
         }
+        nearbyEntities.clear();
+
+        if (anyRemoved) {
+            // Anything removed out of range hasn't been retired yet.
+            entities.removeIf(entity -> {
+                if (entity.isRemoved()) {
+                    retire(entity);
+                    return true;
+                }
+                return false;
+            });
+            projectiles.removeIf(Entity::isRemoved);
+        }
+        replanScheduler.update(delta);
 
         if (objective != null) {
             objective.update(delta);
@@ -545,13 +1218,24 @@ public class Round {
             if (objective.getStatus() == Objective.ObjectiveStatus.COMPLETED) {
                 parent.session.unlockNext();
                 parent.session.incrementLevelCounter();
-                parent.setScreen(new WinScreen(parent, player.getScore()));
+                dispose();
+                // Screens need the GL thread, which this may not be on.
+                final int score = player.getScore();
+                Gdx.app.postRunnable(() -> parent.setScreen(new WinScreen(parent, score)));
             } else if (player.isDead()) {
-                parent.setScreen(new LoseScreen(parent));
-
+                dispose();
+                Gdx.app.postRunnable(() -> parent.setScreen(new LoseScreen(parent)));
             }
         }
     }
 
-
+    /**
+     * Stops this Round's background work. Called when the round ends.
+     */
+    public void dispose() {
+        disposed = true;
+        if (pathfindingService != null) {
+            pathfindingService.shutdown();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.superduckinvaders.game;
+
+import com.superduckinvaders.game.util.FixedTimestep;
+import com.superduckinvaders.game.util.RenderSnapshot;
+import com.superduckinvaders.game.util.SnapshotExchange;
+
+/**
+ * Runs a Round's updates on their own thread, so updating and drawing overlap instead of taking turns on the GL
+ * thread. After each batch of updates it publishes a snapshot of everything the screen draws, which the GL thread
+ * picks up through a SnapshotExchange without ever waiting.
+ * <p>
+ * Once this is running, nothing but this thread may touch the Round until it has stopped.
+ */
+public class SimulationThread extends Thread {
+
+    /**
+     * The round to update.
+     */
+    private final Round round;
+
+    /**
+     * Where finished snapshots are handed to the GL thread.
+     */
+    private final SnapshotExchange exchange;
+
+    /**
+     * Splits real time into fixed updates.
+     */
+    private final FixedTimestep timestep;
+
+    /**
+     * Whether this thread should keep running.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Initialises this SimulationThread and publishes a first snapshot, so there is something to draw straight
+     * away.
+     *
+     * @param round    the round to update
+     * @param exchange where to publish snapshots
+     * @param timestep splits real time into fixed updates
+     */
+    public SimulationThread(Round round, SnapshotExchange exchange, FixedTimestep timestep) {
+        super("Simulation");
+        setDaemon(true);
+        this.round = round;
+        this.exchange = exchange;
+        this.timestep = timestep;
+        publish();
+    }
+
+    private void publish() {
+        RenderSnapshot snapshot = exchange.beginSnapshot();
+        round.snapshot(snapshot);
+        exchange.publish();
+    }
+
+    @Override
+    public void run() {
+        long last = System.nanoTime();
+        while (running && !round.isDisposed()) {
+            long now = System.nanoTime();
+            int steps = timestep.advance((now - last) / 1e9f);
+            last = now;
+
+            for (int i = 0; i < steps && !round.isDisposed(); i++) {
+                round.update(timestep.getStep());
+            }
+            if (steps > 0 && !round.isDisposed()) {
+                publish();
+            }
+
+            // Sleep until the next update is due rather than spinning.
+            long wait = (long) ((1 - timestep.getAlpha()) * timestep.getStep() * 1000);
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops this thread and waits for the update in progress to finish.
+     */
+    public void stopSimulation() {
+        running = false;
+        interrupt();
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -28,4 +28,12 @@ public abstract class AI {
      * @param delta time since the previous update
      */
     public abstract void update(Mob mob, float delta);
+
+    /**
+     * Lets go of anything this AI only needs while its Mob is active. Called when the Mob loses its body or is
+     * removed.
+     * @param mob reference to the Mob using this AI
+     */
+    public void release(Mob mob) {
+    }
 }
@@ -0,0 +1,127 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * The search PathfindingAI has always used: a greedy best-first search that expands whichever tile is nearest the
+ * goal, giving up on any branch more than a fixed number of steps from the start.
+ * <p>
+ * All search state lives in arrays indexed by tile that are reset with a generation stamp rather than cleared, so
+ * once constructed a search allocates nothing.
+ */
+public class BestFirstPathfinder implements Pathfinder {
+
+    /**
+     * Marks the absence of a tile.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The grid of walkable tiles.
+     */
+    private final TileGrid grid;
+
+    /**
+     * How many steps from the start a branch may go before it is abandoned.
+     */
+    private final int iterationLimit;
+
+    /**
+     * Per tile search state, only valid where stamp matches generation.
+     */
+    private final int[] stamp, depth, parent;
+    private final NodeHeap fringe;
+    private int generation = 0;
+
+    /**
+     * How many tiles the last search expanded.
+     */
+    private int expansions = 0;
+
+    /**
+     * Initialises this BestFirstPathfinder.
+     *
+     * @param grid           the grid of walkable tiles
+     * @param iterationLimit how many steps from the start a branch may go before it is abandoned
+     */
+    public BestFirstPathfinder(TileGrid grid, int iterationLimit) {
+        this.grid = grid;
+        this.iterationLimit = iterationLimit;
+
+        int tiles = grid.getWidth() * grid.getHeight();
+        stamp = new int[tiles];
+        depth = new int[tiles];
+        parent = new int[tiles];
+        fringe = new NodeHeap(tiles);
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray path) {
+        path.clear();
+        expansions = 0;
+        generation++;
+        fringe.clear();
+
+        int goalX = grid.tileX(goal), goalY = grid.tileY(goal);
+        stamp[start] = generation;
+        depth[start] = 0;
+        parent[start] = NONE;
+        fringe.push(start, distanceToGoal(start, goalX, goalY));
+
+        while (!fringe.isEmpty()) {
+            int current = fringe.pop();
+
+            if (depth[current] >= iterationLimit) {
+                continue;
+            }
+
+            if (current == goal) {
+                for (int node = current; node != NONE; node = parent[node]) {
+                    path.add(node);
+                }
+                path.reverse();
+                return true;
+            }
+            expansions++;
+
+            // N, E, S, W
+            int x = grid.tileX(current), y = grid.tileY(current);
+            visit(current, x, y + 1, goalX, goalY);
+            visit(current, x + 1, y, goalX, goalY);
+            visit(current, x, y - 1, goalX, goalY);
+            visit(current, x - 1, y, goalX, goalY);
+        }
+        return false;
+    }
+
+    /**
+     * Queues a neighbour of the current tile if it is walkable and hasn't been seen this search.
+     */
+    private void visit(int current, int x, int y, int goalX, int goalY) {
+        if (grid.isBlocked(x, y)) {
+            return;
+        }
+        int next = grid.index(x, y);
+        if (stamp[next] == generation) {
+            return;
+        }
+        stamp[next] = generation;
+        depth[next] = depth[current] + 1;
+        parent[next] = current;
+        fringe.push(next, distanceToGoal(next, goalX, goalY));
+    }
+
+    private float distanceToGoal(int tile, int goalX, int goalY) {
+        float dx = grid.tileX(tile) - goalX;
+        float dy = grid.tileY(tile) - goalY;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return how many tiles the last search expanded
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+}
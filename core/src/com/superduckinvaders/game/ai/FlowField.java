@@ -0,0 +1,186 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * A breadth-first flow field spreading outwards from a single goal tile. Every reached tile stores the next
+ * tile to step onto to get closer to the goal, so any number of mobs chasing the same goal can read their
+ * next step with a single array lookup.
+ */
+public class FlowField {
+
+    /**
+     * Returned when a tile has no step towards the goal (it is blocked, unreachable or too far away).
+     */
+    public static final int NO_STEP = -1;
+
+    /**
+     * The grid of walkable tiles the field spreads over.
+     */
+    private final TileGrid grid;
+
+    /**
+     * How many steps away from the goal the field spreads.
+     */
+    private final int radius;
+
+    /**
+     * The next tile index towards the goal for each tile, valid only where stamp matches generation.
+     */
+    private final int[] next;
+
+    /**
+     * How many steps each tile is away from the goal, valid only where stamp matches generation.
+     */
+    private final int[] distance;
+
+    /**
+     * The generation each tile was last reached in. Bumping the generation clears the whole field.
+     */
+    private final int[] stamp;
+
+    /**
+     * Scratch queue for the breadth-first search.
+     */
+    private final int[] queue;
+
+    /**
+     * The current generation of the field.
+     */
+    private int generation = 0;
+
+    /**
+     * The tile index of the current goal, or NO_STEP if the field has never been built.
+     */
+    private int goal = NO_STEP;
+
+    /**
+     * Initialises this FlowField.
+     *
+     * @param grid   the grid of walkable tiles
+     * @param radius how many steps away from the goal the field should spread
+     */
+    public FlowField(TileGrid grid, int radius) {
+        this.grid = grid;
+        this.radius = radius;
+
+        int size = grid.getWidth() * grid.getHeight();
+        next = new int[size];
+        distance = new int[size];
+        stamp = new int[size];
+        queue = new int[size];
+    }
+
+    /**
+     * Moves the goal of this FlowField, rebuilding it only if the goal tile changed.
+     *
+     * @param goalX the x coordinate of the goal tile
+     * @param goalY the y coordinate of the goal tile
+     * @return whether the field was rebuilt
+     */
+    public boolean update(int goalX, int goalY) {
+        if (!grid.inBounds(goalX, goalY)) {
+            return false;
+        }
+
+        int newGoal = grid.index(goalX, goalY);
+        if (newGoal == goal) {
+            return false;
+        }
+
+        goal = newGoal;
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Refills the field from the current goal. The goal itself is always reached, even if it is blocked,
+     * so mobs still gather around a player standing somewhere they can't follow.
+     */
+    private void rebuild() {
+        generation++;
+
+        int head = 0, tail = 0;
+        queue[tail++] = goal;
+        stamp[goal] = generation;
+        next[goal] = goal;
+        distance[goal] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int currentDistance = distance[current];
+
+            if (currentDistance >= radius) {
+                continue;
+            }
+
+            int x = grid.tileX(current);
+            int y = grid.tileY(current);
+
+            // N, E, S, W, matching the order PathfindingAI expands in.
+            tail = visit(x, y + 1, current, currentDistance, tail);
+            tail = visit(x + 1, y, current, currentDistance, tail);
+            tail = visit(x, y - 1, current, currentDistance, tail);
+            tail = visit(x - 1, y, current, currentDistance, tail);
+        }
+    }
+
+    /**
+     * Reaches a neighbouring tile from the specified tile if it is walkable and not already reached.
+     *
+     * @return the new tail of the queue
+     */
+    private int visit(int x, int y, int from, int fromDistance, int tail) {
+        if (grid.isBlocked(x, y)) {
+            return tail;
+        }
+
+        int index = grid.index(x, y);
+        if (stamp[index] == generation) {
+            return tail;
+        }
+
+        stamp[index] = generation;
+        next[index] = from;
+        distance[index] = fromDistance + 1;
+        queue[tail] = index;
+        return tail + 1;
+    }
+
+    /**
+     * Gets the next tile to step onto from the specified tile to get closer to the goal.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the index of the next tile (the goal itself once reached), or NO_STEP
+     */
+    public int getNextTile(int tileX, int tileY) {
+        if (!grid.inBounds(tileX, tileY)) {
+            return NO_STEP;
+        }
+
+        int index = grid.index(tileX, tileY);
+        return stamp[index] == generation && goal != NO_STEP ? next[index] : NO_STEP;
+    }
+
+    /**
+     * Gets how many steps the specified tile is from the goal.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the number of steps, or -1 if the tile isn't reached by the field
+     */
+    public int getDistance(int tileX, int tileY) {
+        if (getNextTile(tileX, tileY) == NO_STEP) {
+            return -1;
+        }
+        return distance[grid.index(tileX, tileY)];
+    }
+
+    /**
+     * @return the tile index of the current goal, or NO_STEP if there isn't one yet
+     */
+    public int getGoal() {
+        return goal;
+    }
+}
@@ -0,0 +1,458 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*) over square clusters of the navigation grid.
+ * <p>
+ * When constructed, the grid is split into clusters and an entrance is placed on each stretch of walkable tiles
+ * shared by two neighbouring clusters. The distances between entrances of the same cluster are precomputed, giving a
+ * small abstract graph. A query searches that graph and then refines each hop with a search confined to a single
+ * cluster, so the cost of a query depends on the number of entrances and the cluster size, not on how far apart the
+ * start and goal are.
+ */
+public class HierarchicalPathfinder implements Pathfinder {
+
+    /**
+     * The default width and height of a cluster, in tiles.
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 10;
+
+    /**
+     * Stretches of shared walkable tiles at least this long get an entrance at each end instead of one in the middle.
+     */
+    private static final int WIDE_ENTRANCE = 6;
+
+    /**
+     * Marks the absence of a node or tile.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The grid of walkable tiles.
+     */
+    private final TileGrid grid;
+
+    /**
+     * The size of a cluster and the number of clusters along each axis.
+     */
+    private final int clusterSize, clustersX, clustersY;
+
+    /**
+     * The number of entrance nodes in the abstract graph.
+     */
+    private int nodeCount;
+
+    /**
+     * The tile of each node.
+     */
+    private int[] nodeTile;
+
+    /**
+     * The node on each tile, or NONE.
+     */
+    private final int[] tileNode;
+
+    /**
+     * The nodes of cluster c are clusterNodes[clusterNodeStart[c]] to clusterNodes[clusterNodeStart[c + 1] - 1].
+     */
+    private int[] clusterNodeStart, clusterNodes;
+
+    /**
+     * The edges of node n are edgeTarget/edgeCost[edgeStart[n]] to edgeTarget/edgeCost[edgeStart[n + 1] - 1].
+     */
+    private int[] edgeStart, edgeTarget, edgeCost;
+
+    /**
+     * Scratch buffers for searches confined to a single cluster.
+     */
+    private final int[] localStamp, localDistance, localParent, localQueue;
+    private int localGeneration = 0;
+
+    /**
+     * Scratch buffers for the abstract search. The goal is the extra node at index nodeCount.
+     */
+    private int[] searchStamp, searchCost, searchParent, goalStamp, goalCost;
+    private boolean[] closed;
+    private NodeHeap open;
+    private int searchGeneration = 0;
+
+    /**
+     * The abstract path of the last query, from start to goal.
+     */
+    private final IntArray waypoints = new IntArray();
+
+    /**
+     * Builds the abstract graph for a grid.
+     *
+     * @param grid        the grid of walkable tiles
+     * @param clusterSize the width and height of a cluster, in tiles
+     */
+    public HierarchicalPathfinder(TileGrid grid, int clusterSize) {
+        this.grid = grid;
+        this.clusterSize = clusterSize;
+        this.clustersX = (grid.getWidth() + clusterSize - 1) / clusterSize;
+        this.clustersY = (grid.getHeight() + clusterSize - 1) / clusterSize;
+
+        int tiles = grid.getWidth() * grid.getHeight();
+        tileNode = new int[tiles];
+        localStamp = new int[tiles];
+        localDistance = new int[tiles];
+        localParent = new int[tiles];
+        localQueue = new int[tiles];
+
+        buildGraph();
+    }
+
+    /**
+     * Places the entrances and precomputes the costs between them.
+     */
+    private void buildGraph() {
+        Arrays.fill(tileNode, NONE);
+        IntArray tiles = new IntArray();
+        IntArray interEdges = new IntArray();
+
+        for (int cy = 0; cy < clustersY; cy++) {
+            for (int cx = 0; cx < clustersX; cx++) {
+                int minX = cx * clusterSize, minY = cy * clusterSize;
+                int maxX = Math.min(minX + clusterSize, grid.getWidth());
+                int maxY = Math.min(minY + clusterSize, grid.getHeight());
+
+                // Border with the cluster to the right.
+                if (maxX < grid.getWidth()) {
+                    findEntrances(maxX - 1, minY, 0, 1, maxY - minY, 1, 0, tiles, interEdges);
+                }
+                // Border with the cluster above.
+                if (maxY < grid.getHeight()) {
+                    findEntrances(minX, maxY - 1, 1, 0, maxX - minX, 0, 1, tiles, interEdges);
+                }
+            }
+        }
+
+        nodeCount = tiles.size;
+        nodeTile = tiles.toArray();
+
+        // Group the nodes by cluster.
+        int clusters = clustersX * clustersY;
+        clusterNodeStart = new int[clusters + 1];
+        for (int n = 0; n < nodeCount; n++) {
+            clusterNodeStart[clusterOf(nodeTile[n]) + 1]++;
+        }
+        for (int c = 0; c < clusters; c++) {
+            clusterNodeStart[c + 1] += clusterNodeStart[c];
+        }
+        clusterNodes = new int[nodeCount];
+        int[] fill = new int[clusters];
+        for (int n = 0; n < nodeCount; n++) {
+            int c = clusterOf(nodeTile[n]);
+            clusterNodes[clusterNodeStart[c] + fill[c]++] = n;
+        }
+
+        // Collect every edge as (from, to, cost): entrances to their other side, then within each cluster.
+        IntArray edges = new IntArray();
+        for (int i = 0; i < interEdges.size; i += 2) {
+            int a = interEdges.get(i), b = interEdges.get(i + 1);
+            addEdge(edges, a, b, 1);
+            addEdge(edges, b, a, 1);
+        }
+        for (int c = 0; c < clusters; c++) {
+            for (int i = clusterNodeStart[c]; i < clusterNodeStart[c + 1]; i++) {
+                int from = clusterNodes[i];
+                searchCluster(nodeTile[from], c);
+                for (int j = clusterNodeStart[c]; j < clusterNodeStart[c + 1]; j++) {
+                    int to = clusterNodes[j];
+                    int distance = localDistanceTo(nodeTile[to]);
+                    if (to != from && distance != NONE) {
+                        addEdge(edges, from, to, distance);
+                    }
+                }
+            }
+        }
+
+        // Pack the edges by source node.
+        edgeStart = new int[nodeCount + 1];
+        for (int i = 0; i < edges.size; i += 3) {
+            edgeStart[edges.get(i) + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            edgeStart[n + 1] += edgeStart[n];
+        }
+        edgeTarget = new int[edges.size / 3];
+        edgeCost = new int[edges.size / 3];
+        int[] edgeFill = new int[nodeCount];
+        for (int i = 0; i < edges.size; i += 3) {
+            int from = edges.get(i);
+            int slot = edgeStart[from] + edgeFill[from]++;
+            edgeTarget[slot] = edges.get(i + 1);
+            edgeCost[slot] = edges.get(i + 2);
+        }
+
+        searchStamp = new int[nodeCount + 1];
+        searchCost = new int[nodeCount + 1];
+        searchParent = new int[nodeCount + 1];
+        goalStamp = new int[nodeCount];
+        goalCost = new int[nodeCount];
+        closed = new boolean[nodeCount + 1];
+        open = new NodeHeap(nodeCount + 1);
+    }
+
+    /**
+     * Scans the border between two clusters for stretches of tiles walkable on both sides and places entrances on them.
+     *
+     * @param x      the x coordinate of the first border tile on the near side
+     * @param y      the y coordinate of the first border tile on the near side
+     * @param stepX  the x step along the border
+     * @param stepY  the y step along the border
+     * @param length the length of the border
+     * @param crossX the x offset to the far side of the border
+     * @param crossY the y offset to the far side of the border
+     */
+    private void findEntrances(int x, int y, int stepX, int stepY, int length, int crossX, int crossY,
+                               IntArray tiles, IntArray interEdges) {
+        int runStart = NONE;
+        for (int i = 0; i <= length; i++) {
+            int nearX = x + i * stepX, nearY = y + i * stepY;
+            boolean walkable = i < length && !grid.isBlocked(nearX, nearY) && !grid.isBlocked(nearX + crossX, nearY + crossY);
+
+            if (walkable && runStart == NONE) {
+                runStart = i;
+            } else if (!walkable && runStart != NONE) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    addEntrance(x + runStart * stepX, y + runStart * stepY, crossX, crossY, tiles, interEdges);
+                    addEntrance(x + runEnd * stepX, y + runEnd * stepY, crossX, crossY, tiles, interEdges);
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    addEntrance(x + middle * stepX, y + middle * stepY, crossX, crossY, tiles, interEdges);
+                }
+                runStart = NONE;
+            }
+        }
+    }
+
+    private void addEntrance(int x, int y, int crossX, int crossY, IntArray tiles, IntArray interEdges) {
+        int near = nodeAt(grid.index(x, y), tiles);
+        int far = nodeAt(grid.index(x + crossX, y + crossY), tiles);
+        interEdges.add(near);
+        interEdges.add(far);
+    }
+
+    private static void addEdge(IntArray edges, int from, int to, int cost) {
+        edges.add(from);
+        edges.add(to);
+        edges.add(cost);
+    }
+
+    private int nodeAt(int tile, IntArray tiles) {
+        if (tileNode[tile] == NONE) {
+            tileNode[tile] = tiles.size;
+            tiles.add(tile);
+        }
+        return tileNode[tile];
+    }
+
+    /**
+     * Gets the cluster a tile belongs to.
+     *
+     * @param tile the tile index
+     * @return the cluster index
+     */
+    private int clusterOf(int tile) {
+        return (grid.tileY(tile) / clusterSize) * clustersX + grid.tileX(tile) / clusterSize;
+    }
+
+    /**
+     * Breadth-first search from a tile without leaving its cluster. The origin is always reached, even if blocked.
+     *
+     * @param from    the tile to search from
+     * @param cluster the cluster to stay inside
+     */
+    private void searchCluster(int from, int cluster) {
+        localGeneration++;
+        int minX = (cluster % clustersX) * clusterSize, minY = (cluster / clustersX) * clusterSize;
+        int maxX = Math.min(minX + clusterSize, grid.getWidth()), maxY = Math.min(minY + clusterSize, grid.getHeight());
+
+        int head = 0, tail = 0;
+        localQueue[tail++] = from;
+        localStamp[from] = localGeneration;
+        localDistance[from] = 0;
+        localParent[from] = NONE;
+
+        while (head < tail) {
+            int current = localQueue[head++];
+            int x = grid.tileX(current), y = grid.tileY(current);
+            int distance = localDistance[current] + 1;
+
+            for (int d = 0; d < 4; d++) {
+                int nx = x + (d == 1 ? 1 : d == 3 ? -1 : 0);
+                int ny = y + (d == 0 ? 1 : d == 2 ? -1 : 0);
+                if (nx < minX || ny < minY || nx >= maxX || ny >= maxY || grid.isBlocked(nx, ny)) {
+                    continue;
+                }
+                int index = grid.index(nx, ny);
+                if (localStamp[index] != localGeneration) {
+                    localStamp[index] = localGeneration;
+                    localDistance[index] = distance;
+                    localParent[index] = current;
+                    localQueue[tail++] = index;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the distance to a tile found by the last cluster search, or NONE if it wasn't reached
+     */
+    private int localDistanceTo(int tile) {
+        return localStamp[tile] == localGeneration ? localDistance[tile] : NONE;
+    }
+
+    /**
+     * Appends the path found by the last cluster search to a tile, excluding the tile searched from.
+     */
+    private void appendLocalPath(int to, IntArray path) {
+        int first = path.size;
+        for (int tile = to; localParent[tile] != NONE; tile = localParent[tile]) {
+            path.add(tile);
+        }
+        // The tiles were added goal first, so flip them.
+        for (int i = first, j = path.size - 1; i < j; i++, j--) {
+            path.swap(i, j);
+        }
+    }
+
+    private int heuristic(int tile, int goal) {
+        return Math.abs(grid.tileX(tile) - grid.tileX(goal)) + Math.abs(grid.tileY(tile) - grid.tileY(goal));
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray path) {
+        path.clear();
+        path.add(start);
+        if (start == goal) {
+            return true;
+        }
+
+        int startCluster = clusterOf(start), goalCluster = clusterOf(goal);
+
+        // Nearby goals can often be reached without leaving the cluster at all.
+        if (startCluster == goalCluster) {
+            searchCluster(start, startCluster);
+            if (localDistanceTo(goal) != NONE) {
+                appendLocalPath(goal, path);
+                return true;
+            }
+        }
+
+        if (!searchAbstract(start, goal, startCluster, goalCluster)) {
+            path.clear();
+            return false;
+        }
+
+        // Refine each hop: hops within a cluster get a local search, hops across a border are a single step.
+        for (int i = 1; i < waypoints.size; i++) {
+            int from = waypoints.get(i - 1), to = waypoints.get(i);
+            if (from == to) {
+                continue;
+            }
+            int cluster = clusterOf(from);
+            if (cluster == clusterOf(to)) {
+                searchCluster(from, cluster);
+                appendLocalPath(to, path);
+            } else {
+                path.add(to);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A* over the abstract graph, with the start and goal linked to the entrances of their own clusters.
+     * On success, waypoints holds the tiles of the abstract path from start to goal.
+     */
+    private boolean searchAbstract(int start, int goal, int startCluster, int goalCluster) {
+        searchGeneration++;
+        open.clear();
+        int goalNode = nodeCount;
+
+        // Link the goal to the entrances it can reach within its cluster.
+        searchCluster(goal, goalCluster);
+        boolean goalLinked = false;
+        for (int i = clusterNodeStart[goalCluster]; i < clusterNodeStart[goalCluster + 1]; i++) {
+            int node = clusterNodes[i];
+            int distance = localDistanceTo(nodeTile[node]);
+            if (distance != NONE) {
+                goalStamp[node] = searchGeneration;
+                goalCost[node] = distance;
+                goalLinked = true;
+            }
+        }
+        if (!goalLinked) {
+            return false;
+        }
+
+        // Seed the search with the entrances the start can reach within its cluster.
+        searchCluster(start, startCluster);
+        for (int i = clusterNodeStart[startCluster]; i < clusterNodeStart[startCluster + 1]; i++) {
+            int node = clusterNodes[i];
+            int distance = localDistanceTo(nodeTile[node]);
+            if (distance != NONE) {
+                relax(node, NONE, distance, goal);
+            }
+        }
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (node == goalNode) {
+                collectWaypoints(start, goal);
+                return true;
+            }
+            closed[node] = true;
+
+            int cost = searchCost[node];
+            if (goalStamp[node] == searchGeneration) {
+                relax(goalNode, node, cost + goalCost[node], goal);
+            }
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                relax(edgeTarget[e], node, cost + edgeCost[e], goal);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Offers a new cost for reaching a node of the abstract search.
+     */
+    private void relax(int node, int parent, int cost, int goal) {
+        if (searchStamp[node] != searchGeneration) {
+            searchStamp[node] = searchGeneration;
+            closed[node] = false;
+        } else if (closed[node] || cost >= searchCost[node]) {
+            return;
+        }
+        searchCost[node] = cost;
+        searchParent[node] = parent;
+        int tile = node == nodeCount ? goal : nodeTile[node];
+        open.push(node, cost + heuristic(tile, goal));
+    }
+
+    private void collectWaypoints(int start, int goal) {
+        waypoints.clear();
+        waypoints.add(goal);
+        for (int node = searchParent[nodeCount]; node != NONE; node = searchParent[node]) {
+            waypoints.add(nodeTile[node]);
+        }
+        waypoints.add(start);
+        waypoints.reverse();
+    }
+
+    /**
+     * @return the number of entrance nodes in the abstract graph
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+}
@@ -0,0 +1,330 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * A D* Lite search that one mob keeps between replans, repairing its route instead of searching from scratch.
+ * <p>
+ * D* Lite only lets one end of a route move cheaply, and here both ends move. The search is rooted at the mob's
+ * tile and the player is the moving end, because the player moves every replan while the mob just walks along the
+ * route it was given. When the player moves, only the part of the search their move affects is redone. The search
+ * is only rooted again when the mob wanders off its route, or after the player has moved so far that the keys
+ * would overflow.
+ * <p>
+ * Each one holds search state for every tile, so the round lends them to mobs only while they are active.
+ */
+public class IncrementalPathfinder implements Pathfinder, Pool.Poolable {
+
+    /**
+     * Marks the absence of a tile.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The cost of an unreachable tile. Small enough that adding to it doesn't overflow.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+    /**
+     * The first part of a key is scaled by this so both parts fit in one double and compare in order.
+     */
+    private static final double KEY_SCALE = 1 << 24;
+
+    /**
+     * How far the player may wander, summed over every move, before the search starts again.
+     */
+    private static final int MAX_KEY_MODIFIER = 1 << 20;
+
+    /**
+     * The grid of walkable tiles.
+     */
+    private final TileGrid grid;
+
+    /**
+     * Per tile search state, only valid where stamp matches generation. g is the settled cost from the root and
+     * rhs the cost its neighbours say it should have.
+     */
+    private final int[] stamp, g, rhs;
+    private final NodeHeap open;
+    private int generation = 0;
+
+    /**
+     * The tile the search is rooted at, and the tile the player was on at the last search.
+     */
+    private int root = NONE, last = NONE;
+
+    /**
+     * How far the player has moved since the search was rooted, added to keys so old ones stay valid.
+     */
+    private int keyModifier = 0;
+
+    /**
+     * The route from the root to the player, kept to find where the mob is along it.
+     */
+    private final IntArray route = new IntArray();
+
+    /**
+     * How many tiles the last search expanded.
+     */
+    private int expansions = 0;
+
+    /**
+     * Initialises this IncrementalPathfinder.
+     *
+     * @param grid the grid of walkable tiles
+     */
+    public IncrementalPathfinder(TileGrid grid) {
+        this.grid = grid;
+
+        int tiles = grid.getWidth() * grid.getHeight();
+        stamp = new int[tiles];
+        g = new int[tiles];
+        rhs = new int[tiles];
+        open = new NodeHeap(tiles);
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray path) {
+        path.clear();
+        expansions = 0;
+
+        if (root == NONE || keyModifier > MAX_KEY_MODIFIER || (last != goal && indexOnRoute(start) < 0)) {
+            reset(start, goal);
+        } else if (goal != last) {
+            keyModifier += heuristic(last, goal);
+            last = goal;
+        }
+        computeShortestPath();
+
+        if (!buildRoute()) {
+            return false;
+        }
+        int index = indexOnRoute(start);
+        if (index < 0) {
+            // The mob has wandered off the route, so start again from where it is.
+            reset(start, goal);
+            computeShortestPath();
+            if (!buildRoute()) {
+                return false;
+            }
+            index = 0;
+        }
+
+        if (route.get(index) != start) {
+            path.add(start);
+        }
+        for (int i = index; i < route.size; i++) {
+            path.add(route.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Tells the search a tile has been blocked or unblocked since it last ran, so the routes through it are repaired.
+     * Nothing changes the navigation grid during a round yet, so this is only here for dynamic obstacles to use.
+     *
+     * @param tile the tile index
+     */
+    public void tileChanged(int tile) {
+        if (root == NONE) {
+            return;
+        }
+        int x = grid.tileX(tile), y = grid.tileY(tile);
+        updateVertex(tile);
+        updateNeighbour(x, y + 1);
+        updateNeighbour(x + 1, y);
+        updateNeighbour(x, y - 1);
+        updateNeighbour(x - 1, y);
+    }
+
+    /**
+     * Forgets the current search, so the next one starts afresh for whichever mob uses this next.
+     */
+    @Override
+    public void reset() {
+        open.clear();
+        route.clear();
+        root = last = NONE;
+        keyModifier = 0;
+    }
+
+    /**
+     * Throws the search away and roots a new one at a tile.
+     */
+    private void reset(int start, int goal) {
+        generation++;
+        open.clear();
+        root = start;
+        last = goal;
+        keyModifier = 0;
+
+        touch(root);
+        rhs[root] = 0;
+        open.push(root, key(root));
+    }
+
+    /**
+     * Settles tiles in key order until the player's tile is settled and nothing queued could improve it.
+     */
+    private void computeShortestPath() {
+        touch(last);
+        while (!open.isEmpty() && (open.peekKey() < key(last) || rhs[last] != g[last])) {
+            int node = open.peek();
+            double oldKey = open.peekKey();
+            double newKey = key(node);
+            expansions++;
+
+            if (oldKey < newKey) {
+                open.remove(node);
+                open.push(node, newKey);
+            } else if (g[node] > rhs[node]) {
+                g[node] = rhs[node];
+                open.remove(node);
+                updateNeighbours(node);
+            } else {
+                g[node] = INFINITY;
+                updateVertex(node);
+                updateNeighbours(node);
+            }
+        }
+    }
+
+    private void updateNeighbours(int node) {
+        int x = grid.tileX(node), y = grid.tileY(node);
+        updateNeighbour(x, y + 1);
+        updateNeighbour(x + 1, y);
+        updateNeighbour(x, y - 1);
+        updateNeighbour(x - 1, y);
+    }
+
+    private void updateNeighbour(int x, int y) {
+        if (grid.inBounds(x, y)) {
+            updateVertex(grid.index(x, y));
+        }
+    }
+
+    /**
+     * Recalculates what a tile's cost should be from its neighbours and queues it if that differs from its cost.
+     */
+    private void updateVertex(int node) {
+        touch(node);
+        if (node != root) {
+            int best = INFINITY;
+            if (!grid.isBlocked(node)) {
+                int x = grid.tileX(node), y = grid.tileY(node);
+                best = Math.min(best, costThrough(x, y + 1));
+                best = Math.min(best, costThrough(x + 1, y));
+                best = Math.min(best, costThrough(x, y - 1));
+                best = Math.min(best, costThrough(x - 1, y));
+            }
+            rhs[node] = best;
+        }
+
+        open.remove(node);
+        if (g[node] != rhs[node]) {
+            open.push(node, key(node));
+        }
+    }
+
+    /**
+     * Gets the cost of reaching a tile's neighbour through it, or INFINITY if it is blocked or unreached.
+     */
+    private int costThrough(int x, int y) {
+        if (grid.isBlocked(x, y)) {
+            return INFINITY;
+        }
+        int index = grid.index(x, y);
+        if (stamp[index] != generation || g[index] >= INFINITY) {
+            return INFINITY;
+        }
+        return g[index] + 1;
+    }
+
+    /**
+     * Follows the cheapest neighbours from the player's tile back to the root.
+     *
+     * @return whether there is a route
+     */
+    private boolean buildRoute() {
+        route.clear();
+        if (stamp[last] != generation || g[last] >= INFINITY) {
+            return false;
+        }
+
+        int node = last;
+        route.add(node);
+        while (node != root) {
+            int x = grid.tileX(node), y = grid.tileY(node);
+            int next = cheaper(NONE, x, y + 1);
+            next = cheaper(next, x + 1, y);
+            next = cheaper(next, x, y - 1);
+            next = cheaper(next, x - 1, y);
+            if (next == NONE || g[next] >= g[node]) {
+                return false;
+            }
+            node = next;
+            route.add(node);
+        }
+        route.reverse();
+        return true;
+    }
+
+    private int cheaper(int best, int x, int y) {
+        if (grid.isBlocked(x, y)) {
+            return best;
+        }
+        int index = grid.index(x, y);
+        if (stamp[index] != generation || g[index] >= INFINITY) {
+            return best;
+        }
+        return (best == NONE || g[index] < g[best]) ? index : best;
+    }
+
+    /**
+     * Finds the furthest point along the route that is on or next to a tile.
+     *
+     * @return the index in the route, or -1 if the tile isn't on or next to it
+     */
+    private int indexOnRoute(int tile) {
+        int x = grid.tileX(tile), y = grid.tileY(tile);
+        for (int i = route.size - 1; i >= 0; i--) {
+            int node = route.get(i);
+            if (Math.abs(grid.tileX(node) - x) + Math.abs(grid.tileY(node) - y) <= 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Initialises a tile's state if it hasn't been touched since the search was last rooted.
+     */
+    private void touch(int node) {
+        if (stamp[node] != generation) {
+            stamp[node] = generation;
+            g[node] = INFINITY;
+            rhs[node] = INFINITY;
+        }
+    }
+
+    private double key(int node) {
+        int cost = Math.min(g[node], rhs[node]);
+        if (cost >= INFINITY) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (cost + heuristic(node, last) + keyModifier) * KEY_SCALE + cost;
+    }
+
+    private int heuristic(int a, int b) {
+        return Math.abs(grid.tileX(a) - grid.tileX(b)) + Math.abs(grid.tileY(a) - grid.tileY(b));
+    }
+
+    /**
+     * @return how many tiles the last search expanded
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+}
@@ -0,0 +1,205 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * Jump Point Search over the four-way connected tile grid.
+ * <p>
+ * Every step on the grid costs the same, so most routes have many symmetric equivalents. Instead of queueing every
+ * tile, this A* variant scans in a straight line until it finds a tile where the route could branch (a jump point)
+ * and only queues that, so open corridors are crossed in a handful of jumps. Found paths are as short as A*'s.
+ */
+public class JumpPointPathfinder implements Pathfinder {
+
+    /**
+     * Marks the absence of a tile.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The grid of walkable tiles.
+     */
+    private final TileGrid grid;
+
+    /**
+     * Per tile search state, only valid where stamp matches generation.
+     */
+    private final int[] stamp, cost, parent;
+    private final boolean[] closed;
+    private final NodeHeap open;
+    private int generation = 0;
+
+    /**
+     * The goal of the current search.
+     */
+    private int goal;
+
+    /**
+     * How many jump points the last search expanded.
+     */
+    private int expansions = 0;
+
+    /**
+     * Initialises this JumpPointPathfinder.
+     *
+     * @param grid the grid of walkable tiles
+     */
+    public JumpPointPathfinder(TileGrid grid) {
+        this.grid = grid;
+
+        int tiles = grid.getWidth() * grid.getHeight();
+        stamp = new int[tiles];
+        cost = new int[tiles];
+        parent = new int[tiles];
+        closed = new boolean[tiles];
+        open = new NodeHeap(tiles);
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray path) {
+        path.clear();
+        this.goal = goal;
+        expansions = 0;
+        generation++;
+        open.clear();
+
+        stamp[start] = generation;
+        cost[start] = 0;
+        parent[start] = NONE;
+        closed[start] = false;
+        open.push(start, heuristic(start));
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (node == goal) {
+                buildPath(node, path);
+                return true;
+            }
+            closed[node] = true;
+            expansions++;
+            identifySuccessors(node);
+        }
+        return false;
+    }
+
+    /**
+     * Jumps from a node in every direction worth exploring and queues the jump points found.
+     */
+    private void identifySuccessors(int node) {
+        int x = grid.tileX(node), y = grid.tileY(node);
+        int from = parent[node];
+
+        if (from == NONE) {
+            tryDirection(node, x, y, 0, 1);
+            tryDirection(node, x, y, 1, 0);
+            tryDirection(node, x, y, 0, -1);
+            tryDirection(node, x, y, -1, 0);
+            return;
+        }
+
+        int dx = Integer.signum(x - grid.tileX(from));
+        int dy = Integer.signum(y - grid.tileY(from));
+
+        // Keep going the same way, or turn to either side. Turning back is never useful.
+        if (dx != 0) {
+            tryDirection(node, x, y, dx, 0);
+            tryDirection(node, x, y, 0, 1);
+            tryDirection(node, x, y, 0, -1);
+        } else {
+            tryDirection(node, x, y, 0, dy);
+            tryDirection(node, x, y, 1, 0);
+            tryDirection(node, x, y, -1, 0);
+        }
+    }
+
+    private void tryDirection(int node, int x, int y, int dx, int dy) {
+        int jumpPoint = jump(x + dx, y + dy, dx, dy);
+        if (jumpPoint == NONE) {
+            return;
+        }
+
+        int newCost = cost[node] + Math.abs(grid.tileX(jumpPoint) - x) + Math.abs(grid.tileY(jumpPoint) - y);
+        if (stamp[jumpPoint] != generation) {
+            stamp[jumpPoint] = generation;
+            closed[jumpPoint] = false;
+        } else if (closed[jumpPoint] || newCost >= cost[jumpPoint]) {
+            return;
+        }
+        cost[jumpPoint] = newCost;
+        parent[jumpPoint] = node;
+        open.push(jumpPoint, newCost + heuristic(jumpPoint));
+    }
+
+    /**
+     * Scans from a tile in a straight line until reaching the goal, a tile where the route could branch,
+     * or a wall.
+     *
+     * @return the index of the jump point, or NONE if the scan hit a wall
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            if (grid.isBlocked(x, y)) {
+                return NONE;
+            }
+
+            int index = grid.index(x, y);
+            if (index == goal) {
+                return index;
+            }
+
+            if (dx != 0) {
+                // A side opens up that was walled off one tile back.
+                if ((!grid.isBlocked(x, y - 1) && grid.isBlocked(x - dx, y - 1))
+                        || (!grid.isBlocked(x, y + 1) && grid.isBlocked(x - dx, y + 1))) {
+                    return index;
+                }
+            } else {
+                if ((!grid.isBlocked(x - 1, y) && grid.isBlocked(x - 1, y - dy))
+                        || (!grid.isBlocked(x + 1, y) && grid.isBlocked(x + 1, y - dy))) {
+                    return index;
+                }
+                // Vertical scans stop wherever a horizontal scan would find something.
+                if (jump(x + 1, y, 1, 0) != NONE || jump(x - 1, y, -1, 0) != NONE) {
+                    return index;
+                }
+            }
+
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private int heuristic(int tile) {
+        return Math.abs(grid.tileX(tile) - grid.tileX(goal)) + Math.abs(grid.tileY(tile) - grid.tileY(goal));
+    }
+
+    /**
+     * Fills in the straight runs between the jump points leading to a node.
+     */
+    private void buildPath(int node, IntArray path) {
+        for (int current = node; current != NONE; current = parent[current]) {
+            int from = parent[current];
+            if (from == NONE) {
+                path.add(current);
+                break;
+            }
+
+            int x = grid.tileX(current), y = grid.tileY(current);
+            int dx = Integer.signum(grid.tileX(from) - x), dy = Integer.signum(grid.tileY(from) - y);
+            while (grid.index(x, y) != from) {
+                path.add(grid.index(x, y));
+                x += dx;
+                y += dy;
+            }
+        }
+        path.reverse();
+    }
+
+    /**
+     * @return how many jump points the last search expanded
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+}
@@ -0,0 +1,174 @@
+package com.superduckinvaders.game.ai;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of integer search nodes keyed by double priorities. Each node can be in the heap at most once;
+ * pushing a node that is already queued lowers its key instead. Nothing is allocated once constructed.
+ */
+final class NodeHeap {
+
+    /**
+     * The queued nodes, in heap order.
+     */
+    private final int[] heap;
+
+    /**
+     * The key of each node, indexed by node.
+     */
+    private final double[] keys;
+
+    /**
+     * Where each node is in the heap, indexed by node, or -1 if it isn't queued.
+     */
+    private final int[] position;
+
+    /**
+     * How many nodes are queued.
+     */
+    private int size = 0;
+
+    /**
+     * Initialises this NodeHeap.
+     *
+     * @param capacity the number of distinct nodes, nodes must be in the range [0, capacity)
+     */
+    NodeHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Removes every queued node.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return whether there are no queued nodes
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Queues a node, or lowers its key if it is already queued with a higher one.
+     *
+     * @param node the node
+     * @param key  the priority of the node, lower comes out first
+     */
+    void push(int node, double key) {
+        int i = position[node];
+        if (i < 0) {
+            i = size++;
+        } else if (key >= keys[node]) {
+            return;
+        }
+        keys[node] = key;
+        siftUp(i, node);
+    }
+
+    /**
+     * @param node the node
+     * @return whether the node is queued
+     */
+    boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    /**
+     * @return the node with the lowest key, without removing it
+     */
+    int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @return the lowest key queued
+     */
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes a node from the heap if it is queued.
+     *
+     * @param node the node
+     */
+    void remove(int node) {
+        int i = position[node];
+        if (i < 0) {
+            return;
+        }
+        position[node] = -1;
+
+        int last = heap[--size];
+        if (i < size) {
+            // Put the last node in the gap and move it whichever way it needs to go.
+            siftUp(i, last);
+            if (heap[i] == last) {
+                siftDown(i, last);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the node with the lowest key.
+     *
+     * @return the node with the lowest key
+     */
+    int pop() {
+        int top = heap[0];
+        position[top] = -1;
+
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return top;
+    }
+
+    private void siftUp(int i, int node) {
+        double key = keys[node];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[i] = parentNode;
+            position[parentNode] = i;
+            i = parent;
+        }
+        heap[i] = node;
+        position[node] = i;
+    }
+
+    private void siftDown(int i, int node) {
+        double key = keys[node];
+        int half = size >> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int childNode = heap[child];
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[childNode]) {
+                child = right;
+                childNode = heap[right];
+            }
+            if (key <= keys[childNode]) {
+                break;
+            }
+            heap[i] = childNode;
+            position[childNode] = i;
+            i = child;
+        }
+        heap[i] = node;
+        position[node] = i;
+    }
+}
@@ -0,0 +1,100 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A route search handed to a PathfindingService. Each AI keeps one request and reuses it, submitting it again once
+ * it has taken the previous result.
+ * <p>
+ * The path is only written by a worker while the request is pending, and only read by the game once it isn't, so
+ * the volatile state is all the synchronisation needed.
+ */
+public class PathRequest {
+
+    /**
+     * The states a request can be in.
+     */
+    public enum State {
+        /**
+         * Not submitted, or its result has been taken.
+         */
+        IDLE,
+        /**
+         * Waiting for, or being searched by, a worker.
+         */
+        PENDING,
+        /**
+         * A route was found and is in the path.
+         */
+        FOUND,
+        /**
+         * There is no route between the tiles.
+         */
+        NOT_FOUND
+    }
+
+    private volatile State state = State.IDLE;
+
+    /**
+     * The tiles to search between.
+     */
+    int start, goal;
+
+    /**
+     * The route found, from start to goal inclusive.
+     */
+    final IntArray path = new IntArray();
+
+    /**
+     * Whether the route came from the long range pathfinder rather than the search pathfinder.
+     */
+    boolean longRange;
+
+    /**
+     * @return the state of this request
+     */
+    public State getState() {
+        return state;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return whether this request is waiting for a worker
+     */
+    public boolean isPending() {
+        return state == State.PENDING;
+    }
+
+    /**
+     * @return whether this request has a result that hasn't been taken yet
+     */
+    public boolean isDone() {
+        return state == State.FOUND || state == State.NOT_FOUND;
+    }
+
+    /**
+     * Gets the route found. Only valid while the state is FOUND.
+     *
+     * @return the route, from start to goal inclusive
+     */
+    public IntArray getPath() {
+        return path;
+    }
+
+    /**
+     * @return whether the route came from the long range pathfinder
+     */
+    public boolean isLongRange() {
+        return longRange;
+    }
+
+    /**
+     * Marks the result as taken so this request can be submitted again.
+     */
+    public void consume() {
+        state = State.IDLE;
+    }
+}
@@ -0,0 +1,20 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Finds paths between tiles of a map. Tiles are referred to by their index in the round's navigation grid.
+ * Implementations keep scratch buffers between searches, so a single Pathfinder must not be shared between threads.
+ */
+public interface Pathfinder {
+
+    /**
+     * Finds a path between two tiles.
+     *
+     * @param start the index of the tile to start from
+     * @param goal  the index of the tile to get to
+     * @param path  cleared and then filled with the tiles along the path, from start to goal inclusive
+     * @return whether a path was found
+     */
+    boolean findPath(int start, int goal, IntArray path);
+}
@@ -3,15 +3,13 @@ package com.superduckinvaders.game.ai;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
 import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
-import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.Player;
 import com.superduckinvaders.game.entity.mob.Mob;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.PriorityQueue;
+import com.superduckinvaders.game.util.RegionMap;
+import com.superduckinvaders.game.util.TileGrid;
 
 /**
  * AI that follows and attacks the player within a certain range.
@@ -33,6 +31,16 @@ public class PathfindingAI extends AI {
      */
     public final static float PATHFINDING_RATE_OFFSET = (float) 0.05;
 
+    /**
+     * How many waypoints of a long path to check for a shortcut.
+     */
+    public final static int SHORTCUT_LOOKAHEAD = 8;
+
+    /**
+     * How near the player has to be for this AI to chase them.
+     */
+    public final static int PATHFINDING_DISTANCE = 1280 / 4;
+
     /**
      * Width of one tile in the map.
      */
@@ -44,9 +52,97 @@ public class PathfindingAI extends AI {
     private int tileHeight;
 
     /**
-     * Player's last position.
+     * The tiles that mobs can walk through.
+     */
+    private TileGrid grid;
+
+    /**
+     * Which parts of the map can be reached from each other.
+     */
+    private RegionMap regionMap;
+
+    /**
+     * The round's shared flow field towards the player.
+     */
+    private FlowField flowField;
+
+    /**
+     * Whether to follow the shared flow field instead of searching for a path.
+     */
+    private boolean useFlowField;
+
+    /**
+     * Searches for routes to the player.
+     */
+    private Pathfinder searchPathfinder;
+
+    /**
+     * Whether to borrow an incremental search from the round while the mob is active, instead of sharing the
+     * round's search.
+     */
+    private boolean incremental = false;
+
+    /**
+     * The last route found by the search pathfinder.
+     */
+    private IntArray searchPath = new IntArray();
+
+    /**
+     * Scratch vector for checking waypoints, so looking along a path doesn't allocate.
+     */
+    private Vector2 waypoint = new Vector2();
+
+    /**
+     * Scratch vectors for the mob's centre and size while planning, so planning doesn't allocate.
+     */
+    private Vector2 mobPos = new Vector2(), mobSize = new Vector2();
+
+    /**
+     * The Coordinate handed back by planning. Only one target is ever in use, so it is reused for every plan.
+     */
+    private Coordinate nextTarget = new Coordinate(0, 0);
+
+    /**
+     * Scratch vector for the target handed to the mob each update.
+     */
+    private Vector2 targetPoint = new Vector2();
+
+    /**
+     * Runs this AI's searches in the background, or null to search during the update.
+     */
+    private PathfindingService pathfindingService;
+
+    /**
+     * This AI's search in the background, reused for every search.
+     */
+    private PathRequest pathRequest = new PathRequest();
+
+    /**
+     * Searches routes that are too long for the iteration limited search.
+     */
+    private Pathfinder longRangePathfinder;
+
+    /**
+     * The last route found by the long range pathfinder.
+     */
+    private IntArray longPath = new IntArray();
+
+    /**
+     * Decides when this AI gets to replan.
+     */
+    private ReplanScheduler scheduler;
+
+    /**
+     * Scheduling state, owned by the ReplanScheduler. The mob is only set while this AI is queued.
      */
-    private Vector2 playerPos;
+    Mob scheduledMob;
+    float schedulePriority;
+    float lastPlanned = 0;
+
+    /**
+     * Player's last position. Reused every update.
+     */
+    private Vector2 playerPos = new Vector2();
 
     /**
      * Used to calculate rate of pathfinding.
@@ -87,10 +183,48 @@ public class PathfindingAI extends AI {
      * @param targetRange how close to the player this PathfindingAI tries to get
      */
     public PathfindingAI(Round round, int targetRange) {
+        this(round, targetRange, false);
+    }
+
+    /**
+     * Initialises this PathfindingAI.
+     *
+     * @param round        the round the Mob this AI controls is a part of
+     * @param targetRange  how close to the player this PathfindingAI tries to get
+     * @param useFlowField whether to follow the round's shared flow field, only searching when it has no step
+     */
+    public PathfindingAI(Round round, int targetRange, boolean useFlowField) {
+        this(round, targetRange, useFlowField, round.getSearchPathfinder());
+        if (DuckGame.session.incrementalPathfinding) {
+            // An incremental search keeps state about its own mob's route, so one is borrowed on the first replan.
+            incremental = true;
+            searchPathfinder = null;
+            pathfindingService = null;
+        }
+    }
+
+    /**
+     * Initialises this PathfindingAI with a specific search.
+     *
+     * @param round            the round the Mob this AI controls is a part of
+     * @param targetRange      how close to the player this PathfindingAI tries to get
+     * @param useFlowField     whether to follow the round's shared flow field, only searching when it has no step
+     * @param searchPathfinder the search to find routes to the player with
+     */
+    public PathfindingAI(Round round, int targetRange, boolean useFlowField, Pathfinder searchPathfinder) {
         super(round);
 
         this.tileWidth = round.getTileWidth();
         this.tileHeight = round.getTileHeight();
+        this.grid = round.getNavigationGrid();
+        this.regionMap = round.getRegionMap();
+        this.flowField = round.getFlowField();
+        this.searchPathfinder = searchPathfinder;
+        this.longRangePathfinder = round.getPathfinder();
+        // The background workers use the round's own search, so a different one has to run here.
+        this.pathfindingService = (searchPathfinder == round.getSearchPathfinder()) ? round.getPathfindingService() : null;
+        this.scheduler = round.getReplanScheduler();
+        this.useFlowField = useFlowField;
         this.targetRange = targetRange;
     }
 
@@ -102,37 +236,79 @@ public class PathfindingAI extends AI {
      */
     @Override
     public void update(Mob mob, float delta) {
-        playerPos = round.getPlayer().getCentre();
-        TextureSet.FaceDirection lastDir = round.getPlayer().getFacing();
-        
-        float distanceToPlayer = mob.distanceTo(playerPos);
-        float distanceToTargetTile = (target != null) ? mob.getCentre().sub(target.vector()).len() : 0f;
+        Player player = round.getPlayer();
+        playerPos.set(player.getCentreX(), player.getCentreY());
+
+        float mobX = mob.getCentreX(), mobY = mob.getCentreY();
+        float distanceToPlayer = Vector2.dst(mobX, mobY, playerPos.x, playerPos.y);
+        float distanceToTargetTile = (target != null) ? Vector2.dst(mobX, mobY, target.x, target.y) : 0f;
         
         currentOffset += delta;
-        if ((currentOffset >= deltaOffsetLimit || distanceToTargetTile < 2) && (int) distanceToPlayer < 1280 / 4) {
-            deltaOffsetLimit = PATHFINDING_RATE + (MathUtils.random() % PATHFINDING_RATE_OFFSET);
-            currentOffset = 0;
-            //////////////////////////////////////////////////////////
-            switch(lastDir){
-            	case BACK : allowedDir=possibleDir[0];
-            	break;
-            	case RIGHT : allowedDir=possibleDir[1];
-            	break;
-            	case FRONT : allowedDir=possibleDir[2];
-            	break;
-            	case LEFT : allowedDir=possibleDir[3];
-            	break;
+        boolean inRange = (int) distanceToPlayer < PATHFINDING_DISTANCE;
+
+        if (pathRequest.isDone()) {
+            // A search finished in the background since the last update.
+            if (player.dementionTimer == 0) {
+                target = TakePathRequest(mob);
+            } else {
+                pathRequest.consume();
             }
+        }
 
-            if (round.getPlayer().dementionTimer==0) target = FindPath(mob);
-            else target = FindRandPath(mob);
-            //////////////////////////////////////////////////////////
+        if (player.dementionTimer == 0 && !canReachPlayer(mob)) {
+            // No search could ever find the player, so don't bother trying.
+            target = null;
+        } else if (useFlowField && inRange && player.dementionTimer == 0 && hasFlowStep(mob)) {
+            // Reading the field is a single lookup, so there's no need to wait for the timer.
+            target = FollowFlowField(mob);
+        } else if ((currentOffset >= deltaOffsetLimit || distanceToTargetTile < 2) && inRange) {
+            deltaOffsetLimit = PATHFINDING_RATE + (MathUtils.random() % PATHFINDING_RATE_OFFSET);
+            currentOffset = 0;
+            scheduler.request(this, mob, distanceToPlayer);
         }
         
-        // targetPoint = (target != null) ? target.vector() : new Vector2(playerPos).setLength(1f);
         if (target != null) {
-            mob.applyVelocity(target.vector());
+            mob.applyVelocity(targetPoint.set(target.x, target.y));
+        }
+    }
+
+    /**
+     * Gives a borrowed incremental search back to the round.
+     *
+     * @param mob the Mob using this AI
+     */
+    @Override
+    public void release(Mob mob) {
+        if (incremental && searchPathfinder != null) {
+            round.freeIncrementalPathfinder((IncrementalPathfinder) searchPathfinder);
+            searchPathfinder = null;
+        }
+    }
+
+    /**
+     * Works out a new target. Called by the round's ReplanScheduler when it is this AI's turn.
+     *
+     * @param mob the Mob using this AI
+     */
+    void replan(Mob mob) {
+        if (mob.isDormant()) {
+            return;
         }
+        //////////////////////////////////////////////////////////
+        switch(round.getPlayer().getFacing()){
+        	case BACK : allowedDir=possibleDir[0];
+        	break;
+        	case RIGHT : allowedDir=possibleDir[1];
+        	break;
+        	case FRONT : allowedDir=possibleDir[2];
+        	break;
+        	case LEFT : allowedDir=possibleDir[3];
+        	break;
+        }
+
+        if (round.getPlayer().dementionTimer==0) target = FindPath(mob);
+        else target = FindRandPath(mob);
+        //////////////////////////////////////////////////////////
     }
 //////////////////////////////////////////////////////////
     private Coordinate FindRandPath(Mob mob) {
@@ -148,6 +324,49 @@ public class PathfindingAI extends AI {
     	if (randRes<0.8f) return perm[allowedDir[1]];
     	else return perm[allowedDir[2]];
 	}
+
+    /**
+     * Gets whether the mob might be able to walk to the player.
+     *
+     * @param mob the Mob to check
+     * @return false if the mob and the player are in different regions of the map
+     */
+    private boolean canReachPlayer(Mob mob) {
+        mobPos.set(mob.getCentreX(), mob.getCentreY());
+        return regionMap.mayConnect(mobPos.x, mobPos.y, playerPos.x, playerPos.y);
+    }
+
+    /**
+     * Gets whether the shared flow field reaches the tile the mob is standing on.
+     *
+     * @param mob the Mob to check
+     * @return whether the flow field has a step for the mob
+     */
+    private boolean hasFlowStep(Mob mob) {
+        mobPos.set(mob.getCentreX(), mob.getCentreY());
+        return flowField.getNextTile(grid.toTileX(mobPos.x), grid.toTileY(mobPos.y)) != FlowField.NO_STEP;
+    }
+
+    /**
+     * Reads the next step towards the player from the round's shared flow field.
+     *
+     * @param mob Mob that is following the field
+     * @return the Coordinate to move towards, or null to stay put
+     */
+    private Coordinate FollowFlowField(Mob mob) {
+        mobPos.set(mob.getCentreX(), mob.getCentreY());
+
+        if (targetRange > 0 && mobPos.dst(playerPos) < targetRange && round.hasLineOfSight(mobPos, playerPos)) {
+            return null;
+        }
+
+        int next = flowField.getNextTile(grid.toTileX(mobPos.x), grid.toTileY(mobPos.y));
+        if (next == flowField.getGoal()) {
+            return nextTarget.set(playerPos);
+        }
+
+        return tileCentre(next, nextTarget);
+    }
 //////////////////////////////////////////////////////////
 	/**
      * A variation of A* algorithm. Returns a meaningful target coordinate as a pair of integers.
@@ -157,82 +376,114 @@ public class PathfindingAI extends AI {
      * @return Returns a Coordinate for the path finding
      */
     private Coordinate FindPath(Mob mob) {
-        Vector2 mobPos = mob.getCentre();
-        Vector2 mobSize = mob.getSize();
-        Coordinate startCoord = roundToTile(mobPos);
-        Coordinate finalCoord = roundToTile(playerPos);
-        boolean finalFound = false;
+        mobPos.set(mob.getCentreX(), mob.getCentreY());
+        mobSize.set(mob.getWidth(), mob.getHeight());
         
         if (round.pathIsClear(mobPos, mobSize, playerPos)){
-            if (new Vector2(playerPos).sub(mobPos).len() < targetRange){
+            if (playerPos.dst(mobPos) < targetRange){
                 return null;
             }
             else {
                 currentOffset = deltaOffsetLimit;
-                return new Coordinate(playerPos);
+                return nextTarget.set(playerPos);
             }
         }
 
-        PriorityQueue<Coordinate> fringe = new PriorityQueue<Coordinate>();
-        HashMap<Coordinate, SearchNode> visitedStates = new HashMap<Coordinate, SearchNode>();
-        fringe.add(startCoord);
-        visitedStates.put(startCoord, new SearchNode(null, startCoord, 0));
-
-        while (!fringe.isEmpty()) {
-
-            Coordinate currentCoord = fringe.poll();
-            SearchNode currentState = visitedStates.get(currentCoord);
+        int startX = grid.toTileX(mobPos.x), startY = grid.toTileY(mobPos.y);
+        int goalX = grid.toTileX(playerPos.x), goalY = grid.toTileY(playerPos.y);
+        if (!grid.inBounds(startX, startY) || !grid.inBounds(goalX, goalY)) {
+            return null;
+        }
+        int start = grid.index(startX, startY), goal = grid.index(goalX, goalY);
 
-            if (currentState.iteration >= PATHFINDING_ITERATION_LIMIT) {
-                continue;
-            }
-            
-            if (currentCoord.inSameTile(finalCoord)) {
-                finalCoord = currentCoord;
-                finalFound = true;
-                break;
+        if (pathfindingService != null) {
+            // Keep heading for the old target until the search comes back.
+            if (!pathRequest.isPending() && !pathRequest.isDone()) {
+                pathfindingService.submit(pathRequest, start, goal);
             }
+            return target;
+        }
 
-            //work out N, E, S, W permutations
-            Coordinate[] perm = {
-                new Coordinate(currentCoord.x,             currentCoord.y + tileHeight),
-                new Coordinate(currentCoord.x + tileWidth, currentCoord.y             ),
-                new Coordinate(currentCoord.x,             currentCoord.y - tileHeight),
-                new Coordinate(currentCoord.x - tileWidth, currentCoord.y             )
-            };
+        if (incremental && searchPathfinder == null) {
+            searchPathfinder = round.obtainIncrementalPathfinder();
+        }
+        if (searchPathfinder.findPath(start, goal, searchPath)) {
+            return FollowPath(mob, searchPath, 0, searchPath.size - 1);
+        }
+        if (longRangePathfinder.findPath(start, goal, longPath)) {
+            return FollowLongPath(mob, longPath);
+        }
+        return null;
+    }
 
-            for (Coordinate currentPerm : perm) {
-                if (!visitedStates.containsKey(currentPerm) && !round.collidePoint(currentPerm.vector())) {
-                    fringe.add(currentPerm);
-                    visitedStates.put(currentPerm, new SearchNode(currentState, currentPerm, currentState.iteration + 1));
-                }
-            }
+    /**
+     * Takes the result of a search that finished in the background.
+     *
+     * @param mob Mob that the path was generated for
+     * @return the Coordinate to move towards, or null if there's no route
+     */
+    private Coordinate TakePathRequest(Mob mob) {
+        Coordinate next = null;
+        if (pathRequest.getState() == PathRequest.State.FOUND) {
+            IntArray path = pathRequest.getPath();
+            next = pathRequest.isLongRange() ? FollowLongPath(mob, path) : FollowPath(mob, path, 0, path.size - 1);
         }
-        if (!finalFound) {
-            return null;
-        } else {
-            SearchNode resultNode;
-            List<SearchNode> path = new ArrayList<SearchNode>();
-            path.add(visitedStates.get(finalCoord));
-            while (path.get(path.size() - 1) != visitedStates.get(startCoord)) {
-                SearchNode pred = path.get(path.size() - 1).predecessor;
-                if (pred == null){
-                    break;
-                }
-                path.add(pred);
-            }
-            int index = path.size()-1;
-            while (index > 0) {
-                SearchNode tempNode = path.get(index-1);
-                if(!round.pathIsClear(mobPos, mobSize, tempNode.coord.vector())){
-                    break;
-                }
-                index--;
-            }
-            resultNode = path.get(index);
+        pathRequest.consume();
+        return next;
+    }
+
+    /**
+     * Follows a route from the long range pathfinder, which is usually too long to check every waypoint of.
+     *
+     * @param mob  Mob that is following the route
+     * @param path the route, from the mob's tile to the player's
+     * @return the Coordinate of the furthest clear waypoint near the start of the route
+     */
+    private Coordinate FollowLongPath(Mob mob, IntArray path) {
+        // Always take at least one step, then skip ahead as far as we can see.
+        return FollowPath(mob, path, Math.min(1, path.size - 1), Math.min(path.size - 1, SHORTCUT_LOOKAHEAD));
+    }
+
+    /**
+     * Picks the furthest waypoint along a route that the mob can walk straight to.
+     *
+     * @param mob       Mob that is following the route
+     * @param path      the route, from the mob's tile to the player's
+     * @param first     the first waypoint to consider
+     * @param lookahead the last waypoint to consider
+     * @return the Coordinate of the chosen waypoint
+     */
+    private Coordinate FollowPath(Mob mob, IntArray path, int first, int lookahead) {
+        mobPos.set(mob.getCentreX(), mob.getCentreY());
+        mobSize.set(mob.getWidth(), mob.getHeight());
 
-            return resultNode.coord;
+        int index = first;
+        while (index < lookahead && round.pathIsClear(mobPos, mobSize, tileCentre(path.get(index + 1), waypoint))) {
+            index++;
         }
+        return tileCentre(path.get(index), nextTarget);
+    }
+
+    /**
+     * Gets the centre of a tile of the navigation grid without allocating.
+     *
+     * @param index the tile index
+     * @param out   the Coordinate to store the centre in
+     * @return out
+     */
+    private Coordinate tileCentre(int index, Coordinate out) {
+        return out.set((int) ((grid.tileX(index) + 0.5f) * tileWidth), (int) ((grid.tileY(index) + 0.5f) * tileHeight));
+    }
+
+    /**
+     * Gets the centre of a tile of the navigation grid without allocating.
+     *
+     * @param index the tile index
+     * @param out   the vector to store the centre in
+     * @return out
+     */
+    private Vector2 tileCentre(int index, Vector2 out) {
+        return out.set((int) ((grid.tileX(index) + 0.5f) * tileWidth), (int) ((grid.tileY(index) + 0.5f) * tileHeight));
     }
 
     /**
@@ -260,7 +511,7 @@ public class PathfindingAI extends AI {
     /**
      * Represents a pair of coordinates.
      */
-    public class Coordinate implements Comparable<Coordinate> {
+    public class Coordinate {
         /**
          * The X coordinate.
          */
@@ -292,16 +543,26 @@ public class PathfindingAI extends AI {
         }
 
         /**
-         * Compares this Coordinate to another Coordinate.
+         * Moves this Coordinate.
          *
-         * @param o the coordinate to compare to
-         * @return the result of the comparison
+         * @param x the x position.
+         * @param y the y position.
+         * @return this Coordinate
          */
-        @Override
-        public int compareTo(Coordinate o) {
-            float playerDistanceA = this.vector().sub(playerPos).len();
-            float playerDistanceB =    o.vector().sub(playerPos).len();
-            return new Float(playerDistanceA).compareTo(playerDistanceB);
+        public Coordinate set(int x, int y) {
+            this.x = x;
+            this.y = y;
+            return this;
+        }
+
+        /**
+         * Moves this Coordinate to a point.
+         *
+         * @param point The point vector.
+         * @return this Coordinate
+         */
+        public Coordinate set(Vector2 point) {
+            return set((int) point.x, (int) point.y);
         }
 
         /**
@@ -354,31 +615,4 @@ public class PathfindingAI extends AI {
             return new Vector2(x, y);
         }
     }
-
-    /**
-     * Represents a node in the A* search tree.
-     */
-    class SearchNode {
-        /**
-         * The predecessor node in the search tree.
-         */
-        public SearchNode predecessor;
-        public Coordinate coord;
-        /**
-         * The iteration this node is a part of.
-         */
-        public int iteration;
-
-        /**
-         * Initialises this SearchNode.
-         *
-         * @param predecessor the predecessor node
-         * @param iteration   the iteration of this node
-         */
-        public SearchNode(SearchNode predecessor, Coordinate coord, int iteration) {
-            this.predecessor = predecessor;
-            this.coord = coord;
-            this.iteration = iteration;
-        }
-    }
 }
@@ -0,0 +1,121 @@
+package com.superduckinvaders.game.ai;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs route searches on a small pool of background threads so a burst of replanning mobs doesn't stall a frame.
+ * <p>
+ * Pathfinders aren't thread-safe, so every worker builds its own from the factories it is given. They all read the
+ * same navigation grid, which never changes once the round has started.
+ */
+public class PathfindingService {
+
+    /**
+     * How many requests can wait for a worker before new ones are turned away.
+     */
+    public static final int QUEUE_CAPACITY = 64;
+
+    private final Supplier<Pathfinder> searchFactory, longRangeFactory;
+
+    /**
+     * The pathfinders owned by each worker thread.
+     */
+    private final ThreadLocal<Pathfinder[]> pathfinders = new ThreadLocal<Pathfinder[]>() {
+        @Override
+        protected Pathfinder[] initialValue() {
+            return new Pathfinder[]{searchFactory.get(), longRangeFactory.get()};
+        }
+    };
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Initialises this PathfindingService.
+     *
+     * @param threads          how many worker threads to run
+     * @param searchFactory    creates the pathfinder each worker tries first
+     * @param longRangeFactory creates the pathfinder each worker falls back on when the first finds nothing
+     */
+    public PathfindingService(int threads, Supplier<Pathfinder> searchFactory, Supplier<Pathfinder> longRangeFactory) {
+        this.searchFactory = searchFactory;
+        this.longRangeFactory = longRangeFactory;
+
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "pathfinding-" + count.incrementAndGet());
+                // Never keep the game running after it has been closed.
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Gets a sensible number of workers for this machine, leaving a core for the game itself.
+     *
+     * @return the number of worker threads to use
+     */
+    public static int defaultThreads() {
+        return Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Queues a search between two tiles. If the queue is full the request is left idle to be submitted again later.
+     *
+     * @param request the request to fill in, which mustn't already be pending
+     * @param start   the tile index to start from
+     * @param goal    the tile index to reach
+     * @return whether the request was queued
+     */
+    public boolean submit(final PathRequest request, int start, int goal) {
+        request.start = start;
+        request.goal = goal;
+        request.setState(PathRequest.State.PENDING);
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    search(request);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            request.setState(PathRequest.State.IDLE);
+            return false;
+        }
+    }
+
+    private void search(PathRequest request) {
+        Pathfinder[] workerPathfinders = pathfinders.get();
+        boolean found = workerPathfinders[0].findPath(request.start, request.goal, request.path);
+        request.longRange = !found;
+        if (!found) {
+            found = workerPathfinders[1].findPath(request.start, request.goal, request.path);
+        }
+        request.setState(found ? PathRequest.State.FOUND : PathRequest.State.NOT_FOUND);
+    }
+
+    /**
+     * @return how many requests are waiting for a worker
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the workers. Requests still pending are never completed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
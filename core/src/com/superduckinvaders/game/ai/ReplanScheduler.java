@@ -0,0 +1,141 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.entity.mob.Mob;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Decides which mobs get to replan their route each update, so that a crowd of chasing mobs can't push the frame
+ * time up. Mobs queue up when they want a new route and are serviced in priority order until the update's time
+ * budget has been spent; anyone left over keeps their current target and waits for a later update.
+ * <p>
+ * Mobs that planned longest ago go first, with distant mobs penalised so the ones the player can see stay
+ * responsive. Since a mob's place depends on when it last planned, nobody waits forever.
+ */
+public class ReplanScheduler {
+
+    /**
+     * How many microseconds of replanning to allow each update by default.
+     */
+    public static final long DEFAULT_BUDGET_MICROS = 1000;
+
+    /**
+     * How many seconds later than a mob next to the player a mob is treated as having planned, per pixel away.
+     */
+    public static final float SECONDS_PER_PIXEL = 1f / PathfindingAI.PATHFINDING_DISTANCE;
+
+    private final PriorityQueue<PathfindingAI> queue = new PriorityQueue<PathfindingAI>(16, new Comparator<PathfindingAI>() {
+        @Override
+        public int compare(PathfindingAI a, PathfindingAI b) {
+            return Float.compare(a.schedulePriority, b.schedulePriority);
+        }
+    });
+
+    /**
+     * How many microseconds of replanning to allow each update.
+     */
+    private long budgetMicros;
+
+    /**
+     * How much game time has passed, in seconds.
+     */
+    private float clock = 0;
+
+    /**
+     * Metrics from the last update.
+     */
+    private int lastServiced = 0;
+    private long lastElapsedMicros = 0;
+
+    /**
+     * Initialises this ReplanScheduler.
+     *
+     * @param budgetMicros how many microseconds of replanning to allow each update
+     */
+    public ReplanScheduler(long budgetMicros) {
+        this.budgetMicros = budgetMicros;
+    }
+
+    /**
+     * Queues a mob to replan. Does nothing if it is already queued.
+     *
+     * @param ai               the AI that wants to replan
+     * @param mob              the Mob using the AI
+     * @param distanceToPlayer how far the mob is from the player
+     */
+    public void request(PathfindingAI ai, Mob mob, float distanceToPlayer) {
+        if (ai.scheduledMob != null) {
+            return;
+        }
+        ai.scheduledMob = mob;
+        ai.schedulePriority = ai.lastPlanned + distanceToPlayer * SECONDS_PER_PIXEL;
+        queue.add(ai);
+    }
+
+    /**
+     * Lets queued mobs replan until the time budget is spent. At least one mob is serviced every update, so the
+     * queue always drains eventually however small the budget.
+     *
+     * @param delta the time elapsed since the last update
+     */
+    public void update(float delta) {
+        clock += delta;
+
+        long began = System.nanoTime();
+        long deadline = began + budgetMicros * 1000;
+        int serviced = 0;
+
+        while (!queue.isEmpty() && (serviced == 0 || System.nanoTime() < deadline)) {
+            PathfindingAI ai = queue.poll();
+            Mob mob = ai.scheduledMob;
+            ai.scheduledMob = null;
+            // A mob that has gone dormant since asking has given back its search and isn't chasing anyone.
+            if (mob.isRemoved() || mob.isDormant()) {
+                continue;
+            }
+
+            ai.lastPlanned = clock;
+            ai.replan(mob);
+            serviced++;
+        }
+
+        lastServiced = serviced;
+        lastElapsedMicros = (System.nanoTime() - began) / 1000;
+    }
+
+    /**
+     * @return how many microseconds of replanning are allowed each update
+     */
+    public long getBudgetMicros() {
+        return budgetMicros;
+    }
+
+    /**
+     * @param budgetMicros how many microseconds of replanning to allow each update
+     */
+    public void setBudgetMicros(long budgetMicros) {
+        this.budgetMicros = budgetMicros;
+    }
+
+    /**
+     * @return how many mobs are waiting to replan
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return how many mobs replanned in the last update
+     */
+    public int getLastServiced() {
+        return lastServiced;
+    }
+
+    /**
+     * @return how many microseconds the last update spent replanning
+     */
+    public long getLastElapsedMicros() {
+        return lastElapsedMicros;
+    }
+}
@@ -4,6 +4,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.util.RenderSnapshot;
 
 /**
  * Represents an object in the game.
@@ -28,6 +29,11 @@ public abstract class Entity {
      */
     protected boolean removed = false;
 
+    /**
+     * This Entity's handle in the round's entity index, or -1 if it isn't in it.
+     */
+    private int indexHandle = -1;
+
     /**
      * Create a new Entity.
      * @param parent the parent round.
@@ -65,6 +71,22 @@ public abstract class Entity {
             .add(getWidth()/2f, getHeight()/2f);
     }
 
+    /**
+     * Gets the x coordinate of the centre without making a new vector, unlike getCentre.
+     * @return the x coordinate of the centre of this Entity
+     */
+    public float getCentreX() {
+        return getX() + getWidth() / 2f;
+    }
+
+    /**
+     * Gets the y coordinate of the centre without making a new vector, unlike getCentre.
+     * @return the y coordinate of the centre of this Entity
+     */
+    public float getCentreY() {
+        return getY() + getHeight() / 2f;
+    }
+
     /**
      * Returns the distance between this Entity and the specified coordinates.
      *
@@ -145,6 +167,20 @@ public abstract class Entity {
         return removed;
     }
     
+    /**
+     * @return this Entity's handle in the round's entity index, or -1 if it isn't in it
+     */
+    public int getIndexHandle() {
+        return indexHandle;
+    }
+
+    /**
+     * @param indexHandle this Entity's handle in the round's entity index, or -1 once it has been taken out
+     */
+    public void setIndexHandle(int indexHandle) {
+        this.indexHandle = indexHandle;
+    }
+
     /**
      * Updates the state of this Entity.
      *
@@ -166,4 +202,12 @@ public abstract class Entity {
      * @param spriteBatch the sprite batch on which to render
      */
     public abstract void render(SpriteBatch spriteBatch);
+
+    /**
+     * Records what render would draw, so it can be drawn later on another thread.
+     *
+     * @param snapshot the snapshot to add to
+     */
+    public void snapshot(RenderSnapshot snapshot) {
+    }
 }
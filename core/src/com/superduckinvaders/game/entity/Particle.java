@@ -3,6 +3,7 @@ package com.superduckinvaders.game.entity;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.util.RenderSnapshot;
 
 /**
  * Represents a particle effect using an Animation.
@@ -74,4 +75,9 @@ public class Particle extends Entity {
     public void render(SpriteBatch spriteBatch) {
         spriteBatch.draw(animation.getKeyFrame(elapsed), getX(), getY());
     }
+
+    @Override
+    public void snapshot(RenderSnapshot snapshot) {
+        snapshot.addSprite(animation.getKeyFrame(elapsed), getX(), getY());
+    }
 }
@@ -13,16 +13,28 @@ public abstract class PhysicsEntity extends Entity {
     public static final short MOB_BITS         = 0x4;
     public static final short PROJECTILE_BITS  = 0x8;
     public static final short ITEM_BITS        = 0x10;
-    public static final short WATER_BITS        = 0x10;
+    public static final short WATER_BITS       = 0x20;
     public static final short ALL_BITS         = WORLD_BITS | PLAYER_BITS | MOB_BITS |
                                              PROJECTILE_BITS | ITEM_BITS | WATER_BITS;
     public static final short NO_GROUP         = 0;
     public static final short MOB_GROUP        = -1;
-    public static final short SENSOR_GROUP        = -2;
 
     public short categoryBits = PLAYER_BITS;
 
     public Body body;
+
+    /**
+     * How to make this PhysicsEntity's body, so it can be made again after being destroyed.
+     */
+    private BodyDef.BodyType bodyType;
+    private short bodyCategoryBits, bodyMaskBits, bodyGroupIndex;
+    private boolean bodyIsSensor;
+
+    /**
+     * Where the centre was before the last physics step, so rendering can interpolate towards where it is now.
+     */
+    private final Vector2 previousCentre = new Vector2();
+    private boolean hasPreviousCentre = false;
     public static final float METRES_PER_PIXEL = 1/16f;
     public static final float PIXELS_PER_METRE = 1/METRES_PER_PIXEL;
 
@@ -61,6 +73,7 @@ public abstract class PhysicsEntity extends Entity {
         createBody(bodyType, WORLD_BITS, WORLD_BITS, NO_GROUP, false);
     }
     public void createBody(BodyDef.BodyType bodyType, short categoryBits, short maskBits, short groupIndex, boolean isSensor){
+        defineBody(bodyType, categoryBits, maskBits, groupIndex, isSensor);
         float width = getWidth();
         float height = getHeight();
         BodyDef bodyDef = new BodyDef();
@@ -87,6 +100,77 @@ public abstract class PhysicsEntity extends Entity {
         body.setUserData(this);
         boundingBox.dispose();
     }
+
+    /**
+     * Remembers how to make this PhysicsEntity's body without making it, so it starts out dormant.
+     */
+    public void defineBody(BodyDef.BodyType bodyType, short categoryBits, short maskBits, short groupIndex, boolean isSensor){
+        this.bodyType = bodyType;
+        this.bodyCategoryBits = categoryBits;
+        this.bodyMaskBits = maskBits;
+        this.bodyGroupIndex = groupIndex;
+        this.bodyIsSensor = isSensor;
+    }
+
+    /**
+     * Gets whether this PhysicsEntity has no body, so Box2D doesn't know about it at all.
+     * @return whether this PhysicsEntity is dormant
+     */
+    public boolean isDormant() {
+        return body == null;
+    }
+
+    /**
+     * Makes this PhysicsEntity's body again where it was left. Does nothing if it already has one.
+     */
+    public void materialise() {
+        if (body == null && bodyType != null) {
+            createBody(bodyType, bodyCategoryBits, bodyMaskBits, bodyGroupIndex, bodyIsSensor);
+        }
+    }
+
+    /**
+     * Destroys this PhysicsEntity's body, keeping its position, so it costs Box2D nothing while it is far away.
+     * It stands still until it is materialised again.
+     */
+    public void dematerialise() {
+        if (body == null) {
+            return;
+        }
+        Vector2 centre = getCentre();
+        x = centre.x - getWidth() / 2f;
+        y = centre.y - getHeight() / 2f;
+        bodyMaskBits = getMaskBits();
+        parent.world.destroyBody(body);
+        body = null;
+        hasPreviousCentre = false;
+    }
+
+    /**
+     * Remembers where this PhysicsEntity is before a physics step.
+     */
+    public void savePreviousCentre() {
+        if (body == null) {
+            hasPreviousCentre = false;
+        } else {
+            previousCentre.set(body.getPosition()).scl(PIXELS_PER_METRE);
+            hasPreviousCentre = true;
+        }
+    }
+
+    /**
+     * Gets where to draw this PhysicsEntity, between where it was before the last physics step and where it is now.
+     * @return the interpolated position of the bottom left corner
+     */
+    public Vector2 getRenderPosition() {
+        Vector2 centre = getCentre();
+        if (hasPreviousCentre) {
+            float alpha = parent.getRenderAlpha();
+            centre.set(previousCentre.x + (centre.x - previousCentre.x) * alpha,
+                       previousCentre.y + (centre.y - previousCentre.y) * alpha);
+        }
+        return centre.sub(getWidth()/2f, getHeight()/2f);
+    }
     
 
     /**
@@ -115,9 +199,30 @@ public abstract class PhysicsEntity extends Entity {
     
     @Override
     public Vector2 getCentre(){
+        if (body == null) {
+            return new Vector2(x + getWidth() / 2f, y + getHeight() / 2f);
+        }
         return body.getPosition().scl(PIXELS_PER_METRE);
     }
 
+    /**
+     * Gets the x coordinate of the centre without making a new vector, unlike getCentre.
+     * @return the x coordinate of the centre of this PhysicsEntity
+     */
+    @Override
+    public float getCentreX() {
+        return body == null ? x + getWidth() / 2f : body.getPosition().x * PIXELS_PER_METRE;
+    }
+
+    /**
+     * Gets the y coordinate of the centre without making a new vector, unlike getCentre.
+     * @return the y coordinate of the centre of this PhysicsEntity
+     */
+    @Override
+    public float getCentreY() {
+        return body == null ? y + getHeight() / 2f : body.getPosition().y * PIXELS_PER_METRE;
+    }
+
     /**
      * Returns the x velocity of the entity
      * @return the x velocity of this PhysicsEntity in pixels per second
@@ -139,6 +244,9 @@ public abstract class PhysicsEntity extends Entity {
     }
     
     public Vector2 getPhysicsVelocity() {
+        if (body == null) {
+            return new Vector2();
+        }
         return body.getLinearVelocity().cpy();
     }
     
@@ -149,6 +257,9 @@ public abstract class PhysicsEntity extends Entity {
         setVelocity(targetVelocity, 4f);
     }
     public void setVelocity(Vector2 targetVelocity, float limit) {
+        if (body == null) {
+            return;
+        }
         Vector2 deltaVelocity = targetVelocity.sub(body.getLinearVelocity());
         if (limit>0){
             deltaVelocity.clamp(0, limit);
@@ -158,10 +269,17 @@ public abstract class PhysicsEntity extends Entity {
     }
 
     public short getMaskBits(){
+        if (body == null) {
+            return bodyMaskBits;
+        }
         Fixture fixture = body.getFixtureList().get(0);
         return fixture.getFilterData().maskBits;
     }
     public void setMaskBits(short maskBits){
+        bodyMaskBits = maskBits;
+        if (body == null) {
+            return;
+        }
         Fixture fixture = body.getFixtureList().get(0);
         Filter filter = fixture.getFilterData();
         filter.maskBits = maskBits;
@@ -175,18 +293,6 @@ public abstract class PhysicsEntity extends Entity {
         }
     }
 
-    public void beginCollision(PhysicsEntity other, Contact contact) {
-    }
-
-    public void endCollision(PhysicsEntity other, Contact contact) {
-    }
-
-    public void beginSensorContact(PhysicsEntity other, Contact contact) {
-    }
-
-    public void endSensorContact(PhysicsEntity other, Contact contact) {
-    }
-
     public void preSolve(PhysicsEntity other , Contact contact, Manifold manifold) {
     }
 
@@ -17,6 +17,8 @@ import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.Assets;
 import com.superduckinvaders.game.assets.TextureSet;
 import com.superduckinvaders.game.screen.GameScreen;
+import com.superduckinvaders.game.util.RenderSnapshot;
+import com.superduckinvaders.game.util.TerrainMap;
 
 import java.util.EnumMap;
 import java.util.Map;
@@ -104,11 +106,6 @@ public class Player extends TheCharacter {
      */
     private float flyingTimer = 5;
 
-    /**
-     * Keeps track of the water blocks encountered, to know when to stop swimming (when this variable is 0).
-     */
-    public int waterBlockCount = 0;
-
     /**
      * The weapon currently being used.
      */
@@ -176,7 +173,11 @@ public class Player extends TheCharacter {
      * @return whether the player is swimming
      */
     public boolean isSwimming() {
-        return waterBlockCount > 0 && !isFlying();
+        if (isFlying()) {
+            return false;
+        }
+        Vector2 centre = getCentre();
+        return parent.getTerrainMap().overlaps(TerrainMap.Terrain.WATER, centre.x, centre.y, getWidth(), getHeight());
     }
 
     /**
@@ -416,15 +417,25 @@ public class Player extends TheCharacter {
      */
     @Override
     public void render(SpriteBatch spriteBatch) {
-        Vector2 pos = getPosition().add(TEXTURE_OFFSET);
+        Vector2 pos = getRenderPosition().add(TEXTURE_OFFSET);
+        spriteBatch.draw(getFrame(), pos.x, pos.y);
+    }
+
+    @Override
+    public void snapshot(RenderSnapshot snapshot) {
+        Vector2 pos = getRenderPosition().add(TEXTURE_OFFSET);
+        snapshot.addSprite(getFrame(), pos.x, pos.y);
+    }
+
+    /**
+     * @return the attack animation frame if attacking, otherwise the texture for the current state
+     */
+    private TextureRegion getFrame() {
         TextureRegion attackTexture = getAttackAnimationFrame();
         if (attackTexture != null){
-            spriteBatch.draw(attackTexture, pos.x, pos.y);
-        }
-        else {
-            TextureSet textureSet = state.getTextureSet();
-            spriteBatch.draw(textureSet.getTexture(facing, stateTime), pos.x, pos.y);
+            return attackTexture;
         }
+        return state.getTextureSet().getTexture(facing, stateTime);
     }
 
     /**
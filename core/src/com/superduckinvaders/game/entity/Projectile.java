@@ -2,9 +2,10 @@ package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Contact;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.util.ContactTable;
+import com.superduckinvaders.game.util.RenderSnapshot;
 
 /**
  * Represents a projectile.
@@ -38,6 +39,7 @@ public class Projectile extends PhysicsEntity {
         
         this.damage = damage;
         this.owner = owner;
+        this.categoryBits = PROJECTILE_BITS;
 
         createDynamicBody(PROJECTILE_BITS, (short) ~owner.categoryBits, NO_GROUP, false);
         body.setBullet(true);
@@ -60,12 +62,35 @@ public class Projectile extends PhysicsEntity {
         return owner;
     }
     
-    @Override
-    public void beginCollision(PhysicsEntity other, Contact contact){
+    /**
+     * Registers what Projectiles do when they hit something.
+     *
+     * @param table the table to register with
+     */
+    public static void registerContacts(ContactTable table) {
+        table.register(ContactTable.Event.BEGIN_COLLISION, PROJECTILE_BITS, ALL_BITS,
+                (projectile, other) -> ((Projectile) projectile).explode());
+        table.register(ContactTable.Event.BEGIN_COLLISION, PROJECTILE_BITS, (short) (PLAYER_BITS | MOB_BITS),
+                (projectile, character) -> ((Projectile) projectile).hit((TheCharacter) character));
+    }
+
+    /**
+     * Destroys this Projectile in an explosion.
+     */
+    public void explode() {
         parent.createParticle(getCentre(), 0.6f, Assets.explosionAnimation);
         removed = true;
-        if (other instanceof TheCharacter && other != owner) {
-            ((TheCharacter) other).damage(damage);
+    }
+
+    /**
+     * Explodes this Projectile, damaging the character it hit unless that character fired it.
+     *
+     * @param character the character it hit
+     */
+    public void hit(TheCharacter character) {
+        explode();
+        if (character != owner) {
+            character.damage(damage);
         }
     }
 
@@ -85,7 +110,13 @@ public class Projectile extends PhysicsEntity {
      */
     @Override
     public void render(SpriteBatch spriteBatch) {
-        Vector2 pos = getPosition();
+        Vector2 pos = getRenderPosition();
         spriteBatch.draw(Assets.projectile, pos.x, pos.y);
     }
+
+    @Override
+    public void snapshot(RenderSnapshot snapshot) {
+        Vector2 pos = getRenderPosition();
+        snapshot.addSprite(Assets.projectile, pos.x, pos.y);
+    }
 }
@@ -0,0 +1,282 @@
+package com.superduckinvaders.game.entity;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.RenderSnapshot;
+import com.superduckinvaders.game.util.SpatialHash;
+
+import java.util.Arrays;
+
+/**
+ * Moves projectiles without giving them Box2D bodies. Each update sweeps every projectile's path as a line against
+ * the map's tile grid and the characters near it, and the first thing in the way is hit, just as it would be by a
+ * Projectile with a bullet body. Projectiles are kept in parallel arrays, so thousands of them cost the physics
+ * step nothing and allocate nothing.
+ * <p>
+ * Unlike Projectiles, these pass through each other.
+ */
+public class ProjectileSystem {
+
+    /**
+     * The round the projectiles are in.
+     */
+    private final Round parent;
+
+    /**
+     * Where the walls are.
+     */
+    private final LineOfSight lineOfSight;
+
+    /**
+     * The projectiles' sprite.
+     */
+    private final TextureRegion texture;
+
+    /**
+     * Half the size of a projectile, in pixels.
+     */
+    private final float halfWidth, halfHeight;
+
+    /**
+     * Reused to hold what is near each projectile's path.
+     */
+    private final Array<Entity> candidates = new Array<Entity>(false, 16, Entity.class);
+
+    /**
+     * The projectiles. Positions are centres in pixels, velocities in pixels per second.
+     */
+    private float[] xs = new float[64], ys = new float[64], previousXs = new float[64], previousYs = new float[64];
+    private float[] velocityXs = new float[64], velocityYs = new float[64];
+    private int[] damages = new int[64];
+    private PhysicsEntity[] owners = new PhysicsEntity[64];
+    private int count = 0;
+
+    /**
+     * Initialises this ProjectileSystem.
+     *
+     * @param parent      the round the projectiles are in
+     * @param lineOfSight where the walls are
+     * @param texture     the projectiles' sprite, which also gives their size
+     */
+    public ProjectileSystem(Round parent, LineOfSight lineOfSight, TextureRegion texture) {
+        this.parent = parent;
+        this.lineOfSight = lineOfSight;
+        this.texture = texture;
+        this.halfWidth = texture.getRegionWidth() / 2f;
+        this.halfHeight = texture.getRegionHeight() / 2f;
+    }
+
+    /**
+     * Fires a projectile.
+     *
+     * @param x         the x coordinate of the bottom left of the projectile, in pixels
+     * @param y         the y coordinate of the bottom left of the projectile, in pixels
+     * @param velocityX the x velocity, in pixels per second
+     * @param velocityY the y velocity, in pixels per second
+     * @param damage    how much damage it deals
+     * @param owner     who fired it
+     */
+    public void fire(float x, float y, float velocityX, float velocityY, int damage, PhysicsEntity owner) {
+        if (count == xs.length) {
+            int capacity = count * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            previousXs = Arrays.copyOf(previousXs, capacity);
+            previousYs = Arrays.copyOf(previousYs, capacity);
+            velocityXs = Arrays.copyOf(velocityXs, capacity);
+            velocityYs = Arrays.copyOf(velocityYs, capacity);
+            damages = Arrays.copyOf(damages, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+        xs[count] = previousXs[count] = x + halfWidth;
+        ys[count] = previousYs[count] = y + halfHeight;
+        velocityXs[count] = velocityX;
+        velocityYs[count] = velocityY;
+        damages[count] = damage;
+        owners[count] = owner;
+        count++;
+    }
+
+    /**
+     * Moves every projectile, hitting whatever is in its way.
+     *
+     * @param delta the time elapsed since the last update
+     * @param index where the characters that can be hit are
+     */
+    public void update(float delta, SpatialHash<Entity> index) {
+        for (int i = 0; i < count; i++) {
+            float x = xs[i], y = ys[i];
+            float dx = velocityXs[i] * delta, dy = velocityYs[i] * delta;
+            previousXs[i] = x;
+            previousYs[i] = y;
+
+            float hit = lineOfSight.castRay(x, y, x + dx, y + dy);
+            TheCharacter target = null;
+
+            // Characters are grown by half a projectile, so the projectile can be swept as a line.
+            index.query(Math.min(x, x + dx) - halfWidth, Math.min(y, y + dy) - halfHeight,
+                    Math.max(x, x + dx) + halfWidth, Math.max(y, y + dy) + halfHeight, candidates);
+            for (int j = 0; j < candidates.size; j++) {
+                if (!(candidates.get(j) instanceof TheCharacter)) {
+                    continue;
+                }
+                TheCharacter character = (TheCharacter) candidates.get(j);
+                if (character == owners[i] || character.categoryBits == owners[i].categoryBits) {
+                    continue;
+                }
+                float reachX = character.getWidth() / 2 + halfWidth, reachY = character.getHeight() / 2 + halfHeight;
+                float cx = character.getCentreX(), cy = character.getCentreY();
+                float t = sweep(x, y, dx, dy, cx - reachX, cy - reachY, cx + reachX, cy + reachY);
+                if (t < hit) {
+                    hit = t;
+                    target = character;
+                }
+            }
+
+            if (hit == LineOfSight.NO_HIT) {
+                xs[i] = x + dx;
+                ys[i] = y + dy;
+                continue;
+            }
+
+            float hitX = x + dx * hit, hitY = y + dy * hit;
+            if (target != null) {
+                target.damage(damages[i]);
+            }
+            parent.createParticle(hitX, hitY, 0.6f, Assets.explosionAnimation);
+            remove(i--);
+        }
+        candidates.clear();
+    }
+
+    /**
+     * Finds how far along a line it first touches a box, using the slab test.
+     *
+     * @return the fraction of the line, from 0 to 1, before it touches the box, or NO_HIT if it misses
+     */
+    static float sweep(float x, float y, float dx, float dy, float minX, float minY, float maxX, float maxY) {
+        float enter = 0, exit = 1;
+        if (dx == 0) {
+            if (x < minX || x > maxX) {
+                return LineOfSight.NO_HIT;
+            }
+        } else {
+            float t0 = (minX - x) / dx, t1 = (maxX - x) / dx;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+        if (dy == 0) {
+            if (y < minY || y > maxY) {
+                return LineOfSight.NO_HIT;
+            }
+        } else {
+            float t0 = (minY - y) / dy, t1 = (maxY - y) / dy;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+        return enter <= exit ? enter : LineOfSight.NO_HIT;
+    }
+
+    /**
+     * Turns every projectile within reach of a melee attack back the way it came, at twice the speed, and makes
+     * the attacker its owner, just like deflecting a Projectile. Only attackers whose enemies include projectiles
+     * deflect them, and only projectiles their enemies fired.
+     *
+     * @param attacker   who is attacking
+     * @param directionX the x component of the attack direction
+     * @param directionY the y component of the attack direction
+     * @param range      how far the attack reaches from the attacker's centre, in pixels
+     */
+    public void deflect(TheCharacter attacker, float directionX, float directionY, float range) {
+        if ((attacker.enemyBits & PhysicsEntity.PROJECTILE_BITS) == 0) {
+            return;
+        }
+        float centreX = attacker.getCentreX(), centreY = attacker.getCentreY();
+        float reach = range + Math.max(halfWidth, halfHeight);
+        float direction = MathUtils.atan2(directionY, directionX);
+
+        for (int i = 0; i < count; i++) {
+            if (owners[i] == attacker || (owners[i].categoryBits & attacker.enemyBits) == 0) {
+                continue;
+            }
+            float toX = xs[i] - centreX, toY = ys[i] - centreY;
+            float distance = (float) Math.sqrt(toX * toX + toY * toY);
+            if (distance > reach || distance == 0) {
+                continue;
+            }
+            float angle = Math.abs(MathUtils.atan2(toY, toX) - direction) * MathUtils.radiansToDegrees;
+            if (Math.min(angle, 360 - angle) >= 45) {
+                continue;
+            }
+            float speed = 2 * (float) Math.sqrt(velocityXs[i] * velocityXs[i] + velocityYs[i] * velocityYs[i]);
+            velocityXs[i] = toX / distance * speed;
+            velocityYs[i] = toY / distance * speed;
+            owners[i] = attacker;
+        }
+    }
+
+    /**
+     * Removes a projectile by moving the last one into its place.
+     */
+    private void remove(int index) {
+        count--;
+        xs[index] = xs[count];
+        ys[index] = ys[count];
+        previousXs[index] = previousXs[count];
+        previousYs[index] = previousYs[count];
+        velocityXs[index] = velocityXs[count];
+        velocityYs[index] = velocityYs[count];
+        damages[index] = damages[count];
+        owners[index] = owners[count];
+        owners[count] = null;
+    }
+
+    /**
+     * Adds every projectile to a snapshot, between where it was and where it is now by the round's render alpha.
+     *
+     * @param snapshot the snapshot to add to
+     */
+    public void snapshot(RenderSnapshot snapshot) {
+        float alpha = parent.getRenderAlpha();
+        for (int i = 0; i < count; i++) {
+            snapshot.addSprite(texture,
+                    previousXs[i] + (xs[i] - previousXs[i]) * alpha - halfWidth,
+                    previousYs[i] + (ys[i] - previousYs[i]) * alpha - halfHeight);
+        }
+    }
+
+    /**
+     * @return how many projectiles are in flight
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param index which projectile
+     * @return the x coordinate of its centre, in pixels
+     */
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * @param index which projectile
+     * @return the y coordinate of its centre, in pixels
+     */
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * @param index which projectile
+     * @return who fired or last deflected it
+     */
+    public PhysicsEntity getOwner(int index) {
+        return owners[index];
+    }
+}
@@ -1,12 +1,10 @@
 package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.TextureSet;
 
-import java.util.ArrayList;
-
 /**
  * Represents a character in the game.
  */
@@ -54,8 +52,15 @@ public abstract class TheCharacter extends PhysicsEntity {
      */
     public float projectileSpeed = 20f;
 
+    /**
+     * The categories of what this Character's melee attacks can hit.
+     */
     protected short enemyBits = 0;
-    protected ArrayList<PhysicsEntity> enemiesInRange;
+
+    /**
+     * Reused to hold what is near this Character when it looks for melee targets.
+     */
+    private final Array<Entity> nearby = new Array<Entity>(false, 16, Entity.class);
     
     /**
      * Initialises this Character.
@@ -68,28 +73,6 @@ public abstract class TheCharacter extends PhysicsEntity {
     public TheCharacter(Round parent, float x, float y, int maximumHealth) {
         super(parent, x, y);
         this.maximumHealth = this.currentHealth = maximumHealth;
-        enemiesInRange = new ArrayList<>();
-    }
-
-    @Override
-    public void createBody(BodyDef.BodyType bodyType, short categoryBits, short maskBits, short groupIndex, boolean isSensor){
-        super.createBody(bodyType, categoryBits, maskBits, groupIndex, isSensor);
-
-        CircleShape meleeSensorShape = new CircleShape();
-        meleeSensorShape.setRadius(MELEE_RANGE / PIXELS_PER_METRE);
-
-        FixtureDef meleeFixtureDef = new FixtureDef();
-        meleeFixtureDef.shape = meleeSensorShape;
-        meleeFixtureDef.isSensor = true;
-
-        meleeFixtureDef.filter.categoryBits = categoryBits;
-        meleeFixtureDef.filter.maskBits = enemyBits;
-        meleeFixtureDef.filter.groupIndex = SENSOR_GROUP;
-
-        Fixture meleeFixture = body.createFixture(meleeFixtureDef);
-        meleeFixture.setUserData(this);
-
-        meleeSensorShape.dispose();
     }
 
     /**
@@ -214,10 +197,11 @@ public abstract class TheCharacter extends PhysicsEntity {
         if (isStunned()) {
             return false;
         }
-//        if (meleeAttackTimer > MELEE_ATTACK_COOLDOWN && !enemiesInRange.isEmpty()){
         if (meleeAttackTimer > MELEE_ATTACK_COOLDOWN){
-            for (PhysicsEntity entity : enemiesInRange) {
-                if (Math.abs(vectorTo(entity.getCentre()).angle(direction)) < 45) {
+            findNearby();
+            for (int i = 0; i < nearby.size; i++) {
+                Entity entity = nearby.get(i);
+                if (isEnemyInRange(entity) && Math.abs(vectorTo(entity.getCentre()).angle(direction)) < 45) {
                     if (entity instanceof TheCharacter) {
                         TheCharacter character = (TheCharacter) entity;
                         character.damage(damage,infected);
@@ -231,6 +215,11 @@ public abstract class TheCharacter extends PhysicsEntity {
                     }
                 }
             }
+            nearby.clear();
+            ProjectileSystem projectiles = parent.getProjectileSystem();
+            if (projectiles != null && (enemyBits & PROJECTILE_BITS) != 0) {
+                projectiles.deflect(this, direction.x, direction.y, MELEE_RANGE);
+            }
             meleeAttackTimer = 0f;
             faceAttackTimer = 0f;
             lookDirection(direction.cpy().nor());
@@ -253,22 +242,60 @@ public abstract class TheCharacter extends PhysicsEntity {
         return false;
     }
 
-    @Override
-    public void beginSensorContact(PhysicsEntity other, Contact contact) {
-        super.beginSensorContact(other, contact);
-        if (other instanceof TheCharacter || (other instanceof Projectile && ((Projectile)other).getOwner() != this)) {
-            enemiesInRange.add(other);
+    /**
+     * Gets whether a melee attack could be made right now.
+     *
+     * @return whether this Character isn't stunned and its melee attack has cooled down
+     */
+    protected boolean canMeleeAttack() {
+        return !isStunned() && meleeAttackTimer > MELEE_ATTACK_COOLDOWN;
+    }
+
+    /**
+     * Finds something this Character's melee attack could hit, by asking the round what is nearby.
+     *
+     * @return an enemy within melee range, or null if there are none
+     */
+    protected PhysicsEntity findEnemyInRange() {
+        findNearby();
+        for (int i = 0; i < nearby.size; i++) {
+            Entity entity = nearby.get(i);
+            if (isEnemyInRange(entity)) {
+                nearby.clear();
+                return (PhysicsEntity) entity;
+            }
         }
+        nearby.clear();
+        return null;
+    }
 
+    /**
+     * Fills nearby with everything whose box could be within melee range.
+     */
+    private void findNearby() {
+        float x = getCentreX(), y = getCentreY();
+        parent.findEntities(x - MELEE_RANGE, y - MELEE_RANGE, x + MELEE_RANGE, y + MELEE_RANGE, nearby);
     }
 
-    @Override
-    public void endSensorContact(PhysicsEntity other, Contact contact) {
-        super.endSensorContact(other, contact);
-        if (enemiesInRange.contains(other)) {
-            enemiesInRange.remove(other);
+    /**
+     * Gets whether an entity can be hit by this Character's melee attack: it must be an enemy with a body, not a projectile this
+     * Character fired, and its box must be within melee range of this Character's centre.
+     *
+     * @param entity the entity
+     * @return whether it can be hit
+     */
+    private boolean isEnemyInRange(Entity entity) {
+        if (entity == this || !(entity instanceof PhysicsEntity) || (((PhysicsEntity) entity).categoryBits & enemyBits) == 0) {
+            return false;
         }
-
+        if (entity instanceof Projectile && ((Projectile) entity).getOwner() == this) {
+            return false;
+        }
+        float x = getCentreX(), y = getCentreY();
+        float halfWidth = entity.getWidth() / 2, halfHeight = entity.getHeight() / 2;
+        float dx = Math.max(0, Math.abs(entity.getCentreX() - x) - halfWidth);
+        float dy = Math.max(0, Math.abs(entity.getCentreY() - y) - halfHeight);
+        return dx * dx + dy * dy <= MELEE_RANGE * MELEE_RANGE;
     }
 
     /**
@@ -2,12 +2,11 @@ package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.physics.box2d.BodyDef;
-import com.badlogic.gdx.physics.box2d.Contact;
-import com.badlogic.gdx.physics.box2d.Manifold;
 import com.superduckinvaders.game.Round;
 
 /**
- * A water block. Lets the player know when to swim.
+ * A block of water. Only mobs collide with it, to keep them out of the water; whether the player is swimming comes
+ * from the round's TerrainMap, so the player never makes contacts with it.
  */
 public class WaterEntity extends PhysicsEntity {
 
@@ -23,29 +22,7 @@ public class WaterEntity extends PhysicsEntity {
         super(parent, x, y);
         this.width = width;
         this.height = height;
-        createBody(BodyDef.BodyType.StaticBody, WATER_BITS, (short)(ALL_BITS ^ PROJECTILE_BITS), NO_GROUP, false);
-    }
-
-    @Override
-    public void beginCollision(PhysicsEntity other, Contact contact){
-        if (other instanceof Player){
-            ((Player) other).waterBlockCount++;
-        }
-    }
-
-    @Override
-    public void endCollision(PhysicsEntity other, Contact contact){
-        if (other instanceof Player){
-            ((Player) other).waterBlockCount--;
-        }
-    }
-
-    @Override
-    public void preSolve(PhysicsEntity other, Contact contact, Manifold manifold) {
-        super.preSolve(other, contact, manifold);
-        if (other instanceof Player){
-            contact.setEnabled(false);
-        }
+        createBody(BodyDef.BodyType.StaticBody, WATER_BITS, MOB_BITS, NO_GROUP, false);
     }
 
     @Override
@@ -1,9 +1,7 @@
 package com.superduckinvaders.game.entity.item;
 
-import com.badlogic.gdx.physics.box2d.Contact;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.Assets;
-import com.superduckinvaders.game.entity.PhysicsEntity;
 import com.superduckinvaders.game.entity.Player;
 
 /**
@@ -23,10 +21,8 @@ public class CollectItem extends Item {
     }
     
     @Override
-    public void beginSensorContact(PhysicsEntity other, Contact contact){
-        if (other instanceof Player) {
-            removed = true;
-        }
+    public void collect(Player player) {
+        removed = true;
     }
 
     @Override
@@ -4,6 +4,9 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.entity.PhysicsEntity;
+import com.superduckinvaders.game.entity.Player;
+import com.superduckinvaders.game.util.ContactTable;
+import com.superduckinvaders.game.util.RenderSnapshot;
 
 public class Item extends PhysicsEntity {
 
@@ -25,6 +28,24 @@ public class Item extends PhysicsEntity {
         createStaticBody(ITEM_BITS, PLAYER_BITS, NO_GROUP, true);
     }
 
+    /**
+     * Registers what Items do when a Player touches them.
+     *
+     * @param table the table to register with
+     */
+    public static void registerContacts(ContactTable table) {
+        table.register(ContactTable.Event.BEGIN_SENSOR, ITEM_BITS, PLAYER_BITS,
+                (item, player) -> ((Item) item).collect((Player) player));
+    }
+
+    /**
+     * Called when a Player touches this Item.
+     *
+     * @param player the Player
+     */
+    public void collect(Player player) {
+    }
+
     @Override
     public float getWidth() {
         return texture.getRegionWidth();
@@ -45,4 +66,9 @@ public class Item extends PhysicsEntity {
         spriteBatch.draw(texture, getX(), getY());
     }
 
+    @Override
+    public void snapshot(RenderSnapshot snapshot) {
+        snapshot.addSprite(texture, getX(), getY());
+    }
+
 }
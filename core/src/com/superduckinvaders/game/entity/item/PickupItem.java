@@ -1,8 +1,6 @@
 package com.superduckinvaders.game.entity.item;
 
-import com.badlogic.gdx.physics.box2d.Contact;
 import com.superduckinvaders.game.Round;
-import com.superduckinvaders.game.entity.PhysicsEntity;
 import com.superduckinvaders.game.entity.Player;
 
 /**
@@ -36,11 +34,9 @@ public class PickupItem extends Item {
     }
     
     @Override
-    public void beginSensorContact(PhysicsEntity other, Contact contact){
-        if (other instanceof Player) {
-            ((Player)other).givePickup(pickup, time);
-            removed = true;
-        }
+    public void collect(Player player) {
+        player.givePickup(pickup, time);
+        removed = true;
     }
 
     @Override
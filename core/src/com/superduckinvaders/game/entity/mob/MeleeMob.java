@@ -25,15 +25,16 @@ public class MeleeMob extends Mob {
     }
 
     public MeleeMob(Round parent, float x, float y, int health, TextureSet textureSet, int speed) {
-        this(parent, x, y, health, textureSet, speed, new PathfindingAI(parent, 0));
+        this(parent, x, y, health, textureSet, speed, new PathfindingAI(parent, 0, true));
     }
 
     @Override
     public void update(float delta) {
         super.update(delta);
-        if (!enemiesInRange.isEmpty()) {
-            for (PhysicsEntity entity : enemiesInRange) {
-                meleeAttack(vectorTo(entity.getCentre()), 1,infecting);
+        if (canMeleeAttack()) {
+            PhysicsEntity enemy = findEnemyInRange();
+            if (enemy != null) {
+                meleeAttack(vectorTo(enemy.getCentre()), 1,infecting);
             }
         }
     }
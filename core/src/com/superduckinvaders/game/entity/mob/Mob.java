@@ -3,12 +3,17 @@ package com.superduckinvaders.game.entity.mob;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.ai.AI;
 import com.superduckinvaders.game.ai.DummyAI;
 import com.superduckinvaders.game.assets.TextureSet;
 import com.superduckinvaders.game.entity.TheCharacter;
 import com.superduckinvaders.game.entity.Player;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.RenderSnapshot;
+import com.superduckinvaders.game.util.TileGrid;
 
 /**
  * A baddie. Not a goodie, a baddie. Bad-die.
@@ -37,6 +42,22 @@ public class Mob extends TheCharacter {
      */
     private float speed;
 
+    /**
+     * How quickly mobs slow down when nothing pushes them, the same as the linear damping of their bodies.
+     */
+    public static final float LINEAR_DAMPING = 20f;
+
+    /**
+     * Whether this Mob moves itself around the map's tiles with a kinematic body, instead of having Box2D solve its
+     * collisions.
+     */
+    private final boolean kinematic;
+
+    /**
+     * The velocity a kinematic Mob wants to move at, in metres per second.
+     */
+    private final Vector2 kinematicVelocity = new Vector2();
+
     /**
      * Create a new Mob.
      * @param parent     the round parent.
@@ -59,8 +80,30 @@ public class Mob extends TheCharacter {
         this.categoryBits = MOB_BITS;
         this.enemyBits = PLAYER_BITS;
         
-        createDynamicBody(MOB_BITS, (short)(ALL_BITS & (~MOB_BITS)), MOB_GROUP, false);
-        this.body.setLinearDamping(20f);
+        // Mobs spawned far from the player wait without a body until the player comes near.
+        kinematic = DuckGame.session.kinematicMobs;
+        defineBody(kinematic ? BodyDef.BodyType.KinematicBody : BodyDef.BodyType.DynamicBody, MOB_BITS, (short)(ALL_BITS & (~MOB_BITS)), MOB_GROUP, false);
+        if (!parent.isDormantAt(getCentre())) {
+            materialise();
+        }
+    }
+
+    @Override
+    public void createBody(BodyDef.BodyType bodyType, short categoryBits, short maskBits, short groupIndex, boolean isSensor){
+        super.createBody(bodyType, categoryBits, maskBits, groupIndex, isSensor);
+        body.setLinearDamping(LINEAR_DAMPING);
+    }
+
+    @Override
+    public void dematerialise() {
+        super.dematerialise();
+        ai.release(this);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        ai.release(this);
     }
     
     /**
@@ -68,6 +111,7 @@ public class Mob extends TheCharacter {
      * @param ai the new AI to use
      */
     public void setAI(AI ai) {
+        this.ai.release(this);
         this.ai = ai;
     }
     
@@ -99,6 +143,9 @@ public class Mob extends TheCharacter {
     @Override
     public void update(float delta) {
         ai.update(this, delta);
+        if (kinematic) {
+            moveKinematic(delta);
+        }
 
         // Chance of spawning a random powerup.
         if (isDead()) {
@@ -113,7 +160,14 @@ public class Mob extends TheCharacter {
 
     @Override
     public void render(SpriteBatch spriteBatch) {
-        spriteBatch.draw(textureSet.getTexture(facing, stateTime), getX(), getY());
+        Vector2 pos = getRenderPosition();
+        spriteBatch.draw(textureSet.getTexture(facing, stateTime), pos.x, pos.y);
+    }
+
+    @Override
+    public void snapshot(RenderSnapshot snapshot) {
+        Vector2 pos = getRenderPosition();
+        snapshot.addSprite(textureSet.getTexture(facing, stateTime), pos.x, pos.y);
     }
 
     /**
@@ -121,11 +175,68 @@ public class Mob extends TheCharacter {
      * @param destination the destination vector.
      */
     public void applyVelocity(Vector2 destination){
-        Vector2 velocity = destination.sub(getCentre())
+        Vector2 velocity = destination.sub(getCentreX(), getCentreY())
                                .nor().scl(getSpeed());
         if (isStunned()){
             velocity.scl(0.4f);
         }
         setVelocityClamped(velocity);
     }
+
+    /**
+     * Gets whether this Mob moves itself with a kinematic body.
+     * @return whether this Mob is kinematic
+     */
+    public boolean isKinematic() {
+        return kinematic;
+    }
+
+    @Override
+    public void setVelocity(Vector2 targetVelocity, float limit) {
+        if (!kinematic) {
+            super.setVelocity(targetVelocity, limit);
+            return;
+        }
+        Vector2 deltaVelocity = targetVelocity.sub(kinematicVelocity);
+        if (limit > 0) {
+            deltaVelocity.clamp(0, limit);
+        }
+        kinematicVelocity.add(deltaVelocity);
+    }
+
+    /**
+     * Slides a kinematic Mob along the walls and water in its way, then gives its body the velocity that takes it
+     * there over the next step. Box2D never has to solve its collisions with the map, and its velocity dies away
+     * just as the damping of a dynamic body would make it.
+     *
+     * @param delta how long the next step is
+     */
+    private void moveKinematic(float delta) {
+        if (body == null || delta <= 0) {
+            return;
+        }
+        TileGrid grid = parent.getNavigationGrid();
+        float halfWidth = getWidth() / 2 - LineOfSight.EDGE_MARGIN, halfHeight = getHeight() / 2 - LineOfSight.EDGE_MARGIN;
+        float x = getCentreX(), y = getCentreY();
+
+        float dx = kinematicVelocity.x * PIXELS_PER_METRE * delta;
+        float dy = kinematicVelocity.y * PIXELS_PER_METRE * delta;
+        dx = grid.clipMoveX(x - halfWidth, y - halfHeight, x + halfWidth, y + halfHeight, dx);
+        x += dx;
+        dy = grid.clipMoveY(x - halfWidth, y - halfHeight, x + halfWidth, y + halfHeight, dy);
+
+        body.setLinearVelocity(dx / delta * METRES_PER_PIXEL, dy / delta * METRES_PER_PIXEL);
+        kinematicVelocity.scl(1 / (1 + delta * LINEAR_DAMPING));
+    }
+
+    /**
+     * Stops a kinematic Mob that is too far away to be updated, since nothing else would stop it walking through
+     * walls. Dynamic Mobs are left to their damping.
+     */
+    public void stopMoving() {
+        if (kinematic && body != null) {
+            kinematicVelocity.setZero();
+            body.setLinearVelocity(0, 0);
+        }
+    }
 }
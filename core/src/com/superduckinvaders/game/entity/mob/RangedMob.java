@@ -41,14 +41,14 @@ public class RangedMob extends MeleeMob {
      * @param speed      the speed to approach the player.
      */
     public RangedMob(Round parent, float x, float y, int health, TextureSet textureSet, int speed) {
-        super(parent, x, y, health, textureSet, speed, new PathfindingAI(parent, 200));
+        super(parent, x, y, health, textureSet, speed, new PathfindingAI(parent, 200, true));
     }
     
     @Override
     public void update(float delta){
         super.update(delta);
         Vector2 playerPos = parent.getPlayer().getCentre();
-        if (distanceTo(playerPos) < range && parent.rayCast(getCentre(), playerPos)) {
+        if (distanceTo(playerPos) < range && parent.hasLineOfSight(getCentre(), playerPos)) {
             rangedAttack(vectorTo(playerPos), 1);
         }
     }
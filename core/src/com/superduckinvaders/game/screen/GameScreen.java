@@ -11,18 +11,19 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.Matrix4;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.SimulationThread;
 import com.superduckinvaders.game.assets.Assets;
-import com.superduckinvaders.game.entity.Entity;
 import com.superduckinvaders.game.entity.PhysicsEntity;
 import com.superduckinvaders.game.entity.Player;
-import com.superduckinvaders.game.entity.mob.Mob;
+import com.superduckinvaders.game.util.FixedTimestep;
+import com.superduckinvaders.game.util.RenderSnapshot;
+import com.superduckinvaders.game.util.SnapshotExchange;
 
 /**
  * Screen for interaction with the game.
@@ -72,8 +73,22 @@ public class GameScreen extends BaseScreen {
     private OrthographicCamera minimapCamera;
     private Viewport minimapViewport;
 
-    private float accumulator = 0f;
-    private float step = 1/60f;
+    /**
+     * Splits frame time into fixed physics steps.
+     */
+    private FixedTimestep timestep;
+
+    /**
+     * What to draw. Filled in on this thread, or handed over by the simulation thread if there is one.
+     */
+    private RenderSnapshot snapshot = new RenderSnapshot();
+    private SnapshotExchange exchange;
+    private SimulationThread simulation;
+
+    /**
+     * The shader to draw the map with. Set from whichever thread updates the round, and applied when drawing.
+     */
+    private volatile ShaderProgram requestedShader;
 
     
     Box2DDebugRenderer debugRenderer;
@@ -89,6 +104,7 @@ public class GameScreen extends BaseScreen {
         super(game);
         round.gameScreen = this;
         this.round = round;
+        this.timestep = new FixedTimestep(FixedTimestep.DEFAULT_STEP, DuckGame.session.maxPhysicsSteps);
     }
 
     /**
@@ -99,7 +115,10 @@ public class GameScreen extends BaseScreen {
      * @return a Vector3 containing the world coordinates (x and y)
      */
     public Vector3 unproject(int x, int y) {
-        return camera.unproject(new Vector3(x, y, 0));
+        // The camera moves on the GL thread, but the player may be updated on the simulation thread.
+        synchronized (camera) {
+            return camera.unproject(new Vector3(x, y, 0));
+        }
     }
 
     /**
@@ -158,6 +177,12 @@ public class GameScreen extends BaseScreen {
         dementedShader = new ShaderProgram(Gdx.files.internal("shaders/invert.vsh"), Gdx.files.internal("shaders/invert.fsh"));
 //        System.out.println(shader.isCompiled() ? "shader compiled successfully" : shader.getLog());
         setShader(standardShader);
+
+        if (DuckGame.session.simulationThread && simulation == null) {
+            exchange = new SnapshotExchange();
+            simulation = new SimulationThread(round, exchange, timestep);
+            simulation.start();
+        }
     }
 
     @Override
@@ -174,25 +199,42 @@ public class GameScreen extends BaseScreen {
      */
     @Override
     public void render(float delta) {
-        super.render(delta);
-        accumulator+=delta;
-        while (accumulator>=step) {
-            round.update(step);  // TODO(avinash): If round calls dispose, stop here.
-            accumulator-=step;
+        if (round.isDisposed()) {
+            return;
+        }
+        if (simulation != null) {
+            snapshot = exchange.acquire();
+        } else {
+            int steps = timestep.advance(delta);
+            for (int i = 0; i < steps; i++) {
+                round.update(timestep.getStep());
+                if (round.isDisposed()) {
+                    return;
+                }
+            }
+            round.setRenderAlpha(timestep.getAlpha());
+            snapshot.clear();
+            round.snapshot(snapshot);
+        }
+
+        ShaderProgram shader = requestedShader;
+        if (shader != mapRenderer.getBatch().getShader()) {
+            mapRenderer.getBatch().setShader(shader);
+        }
+
+        float playerX = snapshot.playerCentreX;
+        float playerY = snapshot.playerCentreY;
+
+        synchronized (camera) {
+            super.render(delta);
+            // Centre the camera on the player.
+            camera.position.set(
+                    Math.max(cameraMinX, Math.min(playerX, cameraMaxX)),
+                    Math.max(cameraMinY, Math.min(playerY, cameraMaxY)),
+                    0
+            );
+            camera.update();
         }
-        Player player = round.getPlayer();
-        
-        float playerX = player.getX() + player.getWidth() / 2;
-        float playerY = player.getY() + player.getHeight() / 2;
-        
-        
-        // Centre the camera on the player.
-        camera.position.set(
-                Math.max(cameraMinX, Math.min(playerX, cameraMaxX)),
-                Math.max(cameraMinY, Math.min(playerY, cameraMaxY)),
-                0
-        );
-        camera.update();
         spriteBatch.setProjectionMatrix(camera.combined);
 
         minimapCamera.position.set(
@@ -264,11 +306,10 @@ public class GameScreen extends BaseScreen {
         drawOverhang();
 
 
-        Vector2 playerPos = round.getPlayer().getPosition();
         int width = Assets.minimapHead.getRegionWidth()*6;
         int height = Assets.minimapHead.getRegionHeight()*6;
 
-        spriteBatch.draw(Assets.minimapHead, playerPos.x-width/2, playerPos.y-height/2, width, height);
+        spriteBatch.draw(Assets.minimapHead, snapshot.playerX-width/2, snapshot.playerY-height/2, width, height);
 
         spriteBatch.end();
         spriteBatch.setColor(Color.WHITE);
@@ -277,11 +318,8 @@ public class GameScreen extends BaseScreen {
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
         shapeRenderer.setColor(0.9f, 0.2f, 0.2f, 0.7f);
 
-        for (Entity entity : round.getEntities()) {
-            if (entity instanceof Mob){
-                Vector2 pos = entity.getCentre();
-                shapeRenderer.circle(pos.x, pos.y, 10f);
-            }
+        for (int i = 0; i < snapshot.getMobCount(); i++) {
+            shapeRenderer.circle(snapshot.getMobX(i), snapshot.getMobY(i), 10f);
         }
         shapeRenderer.end();
 
@@ -317,8 +355,8 @@ public class GameScreen extends BaseScreen {
         drawMap();
 
         // Draw all entities.
-        for (Entity entity : round.getEntities())
-            entity.render(spriteBatch);
+        for (int i = 0; i < snapshot.getSpriteCount(); i++)
+            spriteBatch.draw(snapshot.getSprite(i), snapshot.getSpriteX(i), snapshot.getSpriteY(i));
 
         drawOverhang();
     }
@@ -341,14 +379,14 @@ public class GameScreen extends BaseScreen {
         uiBatch.begin();
 
         Assets.font.setColor(1.0f, 1.0f, 1.0f, 1.0f);
-        Assets.font.draw(uiBatch, round.getObjective().getObjectiveString(), 10, 705);
-        Assets.font.draw(uiBatch, "Score: " + round.getPlayer().getScore(), 10, 670);
+        Assets.font.draw(uiBatch, snapshot.objectiveString, 10, 705);
+        Assets.font.draw(uiBatch, "Score: " + snapshot.score, 10, 670);
         Assets.font.draw(uiBatch, Gdx.graphics.getFramesPerSecond() + " FPS", 10, 630);
 
         // Draw stamina bar (for flight);
         uiBatch.draw(Assets.staminaEmpty, 1080, 10);
-        if (round.getPlayer().getFlyingTimer() > 0) {
-            float remainingFlight = round.getPlayer().getFlyingTimer();
+        if (snapshot.flyingTimer > 0) {
+            float remainingFlight = snapshot.flyingTimer;
             float barFraction = Math.min(1,  (remainingFlight / Player.PLAYER_FLIGHT_TIME));
             Assets.staminaFull.setRegionWidth((int)Math.max(0f, barFraction*192));
         } else {
@@ -358,19 +396,18 @@ public class GameScreen extends BaseScreen {
 
         // Draw powerups.
         int i=0;
-        for (Player.Pickup pickup : round.getPlayer().pickupMap.keySet()){
-            TextureRegion texture = pickup.getTexture();
+        for (TextureRegion texture : snapshot.pickups){
             float width = texture.getRegionWidth();
             float height = texture.getRegionHeight();
             uiBatch.draw(texture, 1080+(50*i++), 85, width*2, height*2);
         }
 
-        for (int x = 0; x < round.getPlayer().getMaximumHealth(); x += 2) {
+        for (int x = 0; x < snapshot.maximumHealth; x += 2) {
             TextureRegion heart;
-            if(x+2 <= round.getPlayer().getCurrentHealth()) {
+            if(x+2 <= snapshot.currentHealth) {
                 heart = Assets.heartFull;
             }
-            else if(x+1 <= round.getPlayer().getCurrentHealth()) {
+            else if(x+1 <= snapshot.currentHealth) {
                 heart = Assets.heartHalf;
             }
             else {
@@ -388,6 +425,10 @@ public class GameScreen extends BaseScreen {
     @Override
     public void dispose() {
         Gdx.input.setInputProcessor(null);
+        if (simulation != null) {
+            simulation.stopSimulation();
+        }
+        round.dispose();
         debugRenderer.dispose();
         mapRenderer.dispose();
         spriteBatch.dispose();
@@ -398,8 +439,6 @@ public class GameScreen extends BaseScreen {
     }
     
     public void setShader(ShaderProgram shader){
-    	if (shader != mapRenderer.getBatch().getShader()){
-    		mapRenderer.getBatch().setShader(shader);
-        }
+        requestedShader = shader;
     }
 }
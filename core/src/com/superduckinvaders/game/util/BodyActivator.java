@@ -0,0 +1,215 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+
+import java.util.Arrays;
+
+/**
+ * Deactivates dynamic bodies far from the player, so the physics step only pays for what is happening nearby.
+ * Inactive bodies aren't simulated or collided with by Box2D at all.
+ * <p>
+ * Bodies go to sleep beyond the sleep radius and wake inside the smaller wake radius, so nothing flickers on and off
+ * at the boundary. The map is also split into square regions, and a body is kept awake while a projectile is in its
+ * region or one next to it, so shots fired at distant mobs still land. Projectiles and the player are never put to
+ * sleep: projectiles only live until they hit something, and a frozen one would hang in mid air.
+ */
+public class BodyActivator {
+
+    /**
+     * How big a region is by default, in pixels.
+     */
+    public static final float DEFAULT_REGION_SIZE = 256;
+
+    /**
+     * Categories of body that are never put to sleep.
+     */
+    private static final short ALWAYS_ACTIVE_BITS = PhysicsEntity.PLAYER_BITS | PhysicsEntity.PROJECTILE_BITS;
+
+    /**
+     * Bodies within this many pixels of the player are woken.
+     */
+    private float wakeRadius;
+
+    /**
+     * Bodies beyond this many pixels of the player are put to sleep.
+     */
+    private float sleepRadius;
+
+    /**
+     * The size of a region, in pixels.
+     */
+    private final float regionSize;
+
+    /**
+     * How many regions there are across and up the map.
+     */
+    private final int regionsWide, regionsHigh;
+
+    /**
+     * The frame each region last had a projectile in it. Comparing against the current frame saves clearing it.
+     */
+    private final int[] projectileFrame;
+    private int frame = 0;
+
+    /**
+     * Reused to list the world's bodies.
+     */
+    private final Array<Body> bodies = new Array<Body>();
+
+    /**
+     * Metrics from the last update.
+     */
+    private int activeCount = 0, sleepingCount = 0;
+
+    /**
+     * Initialises this BodyActivator.
+     *
+     * @param mapWidth    the width of the map, in pixels
+     * @param mapHeight   the height of the map, in pixels
+     * @param regionSize  the size of a region, in pixels
+     * @param wakeRadius  bodies within this many pixels of the player are woken
+     * @param sleepRadius bodies beyond this many pixels of the player are put to sleep
+     */
+    public BodyActivator(float mapWidth, float mapHeight, float regionSize, float wakeRadius, float sleepRadius) {
+        this.regionSize = regionSize;
+        this.regionsWide = Math.max(1, (int) Math.ceil(mapWidth / regionSize));
+        this.regionsHigh = Math.max(1, (int) Math.ceil(mapHeight / regionSize));
+        this.projectileFrame = new int[regionsWide * regionsHigh];
+        Arrays.fill(projectileFrame, -1);
+        setRadii(wakeRadius, sleepRadius);
+    }
+
+    /**
+     * Sets how near bodies must be to the player to wake, and how far to sleep.
+     *
+     * @param wakeRadius  bodies within this many pixels of the player are woken
+     * @param sleepRadius bodies beyond this many pixels of the player are put to sleep, at least the wake radius
+     */
+    public void setRadii(float wakeRadius, float sleepRadius) {
+        if (sleepRadius < wakeRadius) {
+            throw new IllegalArgumentException("sleep radius must be at least the wake radius");
+        }
+        this.wakeRadius = wakeRadius;
+        this.sleepRadius = sleepRadius;
+    }
+
+    /**
+     * Wakes and sleeps the world's dynamic bodies. Must be called outside of world.step.
+     *
+     * @param world   the world whose bodies to update
+     * @param centreX the x coordinate of the player's centre, in pixels
+     * @param centreY the y coordinate of the player's centre, in pixels
+     */
+    public void update(World world, float centreX, float centreY) {
+        world.getBodies(bodies);
+        frame++;
+
+        for (int i = 0; i < bodies.size; i++) {
+            Body body = bodies.get(i);
+            if (body.isActive() && (categoryOf(body) & PhysicsEntity.PROJECTILE_BITS) != 0) {
+                Vector2 position = body.getPosition();
+                int region = regionAt(position.x * PhysicsEntity.PIXELS_PER_METRE, position.y * PhysicsEntity.PIXELS_PER_METRE);
+                if (region >= 0) {
+                    projectileFrame[region] = frame;
+                }
+            }
+        }
+
+        float wakeSquared = wakeRadius * wakeRadius, sleepSquared = sleepRadius * sleepRadius;
+        activeCount = sleepingCount = 0;
+        for (int i = 0; i < bodies.size; i++) {
+            Body body = bodies.get(i);
+            if (body.getType() != BodyDef.BodyType.DynamicBody) {
+                continue;
+            }
+
+            if ((categoryOf(body) & ALWAYS_ACTIVE_BITS) == 0) {
+                Vector2 position = body.getPosition();
+                float x = position.x * PhysicsEntity.PIXELS_PER_METRE, y = position.y * PhysicsEntity.PIXELS_PER_METRE;
+                float distanceSquared = (x - centreX) * (x - centreX) + (y - centreY) * (y - centreY);
+
+                if (distanceSquared < wakeSquared || isProjectileNear(x, y)) {
+                    body.setActive(true);
+                } else if (distanceSquared > sleepSquared) {
+                    body.setActive(false);
+                }
+            }
+
+            if (body.isActive()) {
+                activeCount++;
+            } else {
+                sleepingCount++;
+            }
+        }
+        bodies.clear();
+    }
+
+    private static short categoryOf(Body body) {
+        return body.getFixtureList().size == 0 ? 0 : body.getFixtureList().get(0).getFilterData().categoryBits;
+    }
+
+    /**
+     * Gets the region a point is in.
+     *
+     * @return the index of the region, or -1 outside the map
+     */
+    private int regionAt(float x, float y) {
+        int regionX = (int) Math.floor(x / regionSize), regionY = (int) Math.floor(y / regionSize);
+        if (regionX < 0 || regionX >= regionsWide || regionY < 0 || regionY >= regionsHigh) {
+            return -1;
+        }
+        return regionY * regionsWide + regionX;
+    }
+
+    /**
+     * Gets whether a projectile was in the region of a point, or one next to it, at the last update.
+     *
+     * @param x the x coordinate, in pixels
+     * @param y the y coordinate, in pixels
+     * @return whether a projectile is near the point
+     */
+    public boolean isProjectileNear(float x, float y) {
+        int regionX = (int) Math.floor(x / regionSize), regionY = (int) Math.floor(y / regionSize);
+        for (int nearX = Math.max(0, regionX - 1); nearX <= Math.min(regionsWide - 1, regionX + 1); nearX++) {
+            for (int nearY = Math.max(0, regionY - 1); nearY <= Math.min(regionsHigh - 1, regionY + 1); nearY++) {
+                if (projectileFrame[nearY * regionsWide + nearX] == frame) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return how many dynamic bodies were active after the last update
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @return how many dynamic bodies were asleep after the last update
+     */
+    public int getSleepingCount() {
+        return sleepingCount;
+    }
+
+    /**
+     * @return bodies within this many pixels of the player are woken
+     */
+    public float getWakeRadius() {
+        return wakeRadius;
+    }
+
+    /**
+     * @return bodies beyond this many pixels of the player are put to sleep
+     */
+    public float getSleepRadius() {
+        return sleepRadius;
+    }
+}
@@ -6,7 +6,7 @@ import com.badlogic.gdx.physics.box2d.QueryCallback;
 import com.badlogic.gdx.physics.box2d.World;
 
 /**
- * Collision utilities.
+ * Collision utilities. Queries can be set up again with set and reused, so checks made every update don't allocate.
  */
 public class Collision {
 
@@ -27,20 +27,43 @@ public class Collision {
     }
 
     public static class QueryPoint extends Query {
-        public Vector2 p;
+        /**
+         * The point to test, in metres.
+         */
+        public float x, y;
+
+        public QueryPoint(World world) {
+            super(world, (short) 0);
+        }
 
         public QueryPoint(World world, Vector2 p, short maskBits){
             super(world, maskBits);
-            this.p = p;
+            set(p.x, p.y, maskBits);
+        }
+
+        /**
+         * Sets up this query to test another point.
+         *
+         * @param x        the x coordinate of the point, in metres
+         * @param y        the y coordinate of the point, in metres
+         * @param maskBits the categories of fixture to test against
+         * @return this query
+         */
+        public QueryPoint set(float x, float y, short maskBits) {
+            this.x = x;
+            this.y = y;
+            this.maskBits = maskBits;
+            return this;
         }
 
         public boolean query(){
-            world.QueryAABB(this, p.x, p.y, p.x+1, p.y+1);
+            result = false;
+            world.QueryAABB(this, x, y, x, y);
             return result;
         }
 
         public boolean reportFixture(Fixture fixture){
-            if ((fixture.getFilterData().categoryBits & maskBits) != 0 && fixture.testPoint(p)) {
+            if ((fixture.getFilterData().categoryBits & maskBits) != 0 && fixture.testPoint(x, y)) {
                 result = true; // we collided
                 return false; // ends the query
             }
@@ -49,25 +72,51 @@ public class Collision {
     }
 
     public static class QueryArea extends Query {
-        Vector2 p1;
-        Vector2 p2;
+        /**
+         * The corners of the area, in metres.
+         */
+        public float x1, y1, x2, y2;
+
+        public QueryArea(World world) {
+            super(world, (short) 0);
+        }
 
         public QueryArea(World world, Vector2 pos, Vector2 size, short maskBits){
             super(world, maskBits);
-            this.p1 = pos;
-            this.p2 = size.add(pos);
+            set(pos.x, pos.y, size.x, size.y, maskBits);
+        }
+
+        /**
+         * Sets up this query to test another area.
+         *
+         * @param x        the x coordinate of the bottom left corner, in metres
+         * @param y        the y coordinate of the bottom left corner, in metres
+         * @param width    the width of the area, in metres
+         * @param height   the height of the area, in metres
+         * @param maskBits the categories of fixture to test against
+         * @return this query
+         */
+        public QueryArea set(float x, float y, float width, float height, short maskBits) {
+            this.x1 = x;
+            this.y1 = y;
+            this.x2 = x + width;
+            this.y2 = y + height;
+            this.maskBits = maskBits;
+            return this;
         }
 
         public boolean query(){
-            world.QueryAABB(this, p1.x, p1.y, p2.x, p2.y);
+            result = false;
+            world.QueryAABB(this, x1, y1, x2, y2);
             return result;
         }
 
         public boolean reportFixture(Fixture fixture){
-            // TODO: check fixture categoryBits
-            result = true; //AABB gave us ANY fixture, BB overlaps.
-            return false;
+            if ((fixture.getFilterData().categoryBits & maskBits) != 0) {
+                result = true; //AABB gave us a matching fixture, BB overlaps.
+                return false;
+            }
+            return true;
         }
     }
 }
-
@@ -0,0 +1,110 @@
+package com.superduckinvaders.game.util;
+
+import com.superduckinvaders.game.entity.PhysicsEntity;
+
+/**
+ * Decides what happens when two kinds of PhysicsEntity touch. Handlers are registered for a pair of collision
+ * categories and looked up straight from the fixtures' category bits, so nothing needs to check what class the
+ * entities are, and adding an entity type is a matter of registering its pairs.
+ * <p>
+ * Every category must be a single bit, so each has its own row in the table.
+ */
+public class ContactTable {
+
+    /**
+     * What can happen between two fixtures.
+     */
+    public enum Event {
+        /**
+         * Two solid fixtures started touching.
+         */
+        BEGIN_COLLISION,
+        /**
+         * Two solid fixtures stopped touching.
+         */
+        END_COLLISION,
+        /**
+         * Something entered a sensor fixture.
+         */
+        BEGIN_SENSOR,
+        /**
+         * Something left a sensor fixture.
+         */
+        END_SENSOR
+    }
+
+    /**
+     * Handles one side of a contact.
+     */
+    public interface Handler {
+        /**
+         * @param entity the entity whose fixture the handler was registered for
+         * @param other  the entity it touched
+         */
+        void handle(PhysicsEntity entity, PhysicsEntity other);
+    }
+
+    /**
+     * How many categories there can be: one per bit of a fixture's category bits.
+     */
+    public static final int CATEGORIES = 16;
+
+    /**
+     * The handlers, indexed by event, then the category of the entity, then the category of the other.
+     */
+    private final Handler[] handlers = new Handler[Event.values().length * CATEGORIES * CATEGORIES];
+
+    /**
+     * Gets the row of a category in the table.
+     *
+     * @param categoryBits the category bits of a fixture
+     * @return the index of its highest bit, or -1 if it has none
+     */
+    public static int categoryIndex(short categoryBits) {
+        return 31 - Integer.numberOfLeadingZeros(categoryBits & 0xFFFF);
+    }
+
+    /**
+     * Registers a handler for every pair of categories given. Replaces any handler already registered for a pair.
+     *
+     * @param event           what has to happen
+     * @param categories      the categories of the entity the handler is given first, any number of bits
+     * @param otherCategories the categories of the entity it touched, any number of bits
+     * @param handler         what to do
+     */
+    public void register(Event event, short categories, short otherCategories, Handler handler) {
+        for (int category = 0; category < CATEGORIES; category++) {
+            if ((categories & (1 << category)) == 0) {
+                continue;
+            }
+            for (int other = 0; other < CATEGORIES; other++) {
+                if ((otherCategories & (1 << other)) != 0) {
+                    handlers[index(event.ordinal(), category, other)] = handler;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the handler for a pair of categories, if there is one.
+     *
+     * @param event         what happened
+     * @param category      the category index of the entity
+     * @param otherCategory the category index of the entity it touched
+     * @param entity        the entity
+     * @param other         the entity it touched
+     */
+    public void dispatch(Event event, int category, int otherCategory, PhysicsEntity entity, PhysicsEntity other) {
+        if (category < 0 || otherCategory < 0) {
+            return;
+        }
+        Handler handler = handlers[index(event.ordinal(), category, otherCategory)];
+        if (handler != null) {
+            handler.handle(entity, other);
+        }
+    }
+
+    private static int index(int event, int category, int otherCategory) {
+        return (event * CATEGORIES + category) * CATEGORIES + otherCategory;
+    }
+}
@@ -5,62 +5,174 @@ import com.superduckinvaders.game.entity.PhysicsEntity;
 
 /**
  * Helper class to make contact checks between two PhysicsEntities easier.
+ * <p>
+ * What a contact does is looked up in a ContactTable from the categories of the two fixtures involved.
+ * <p>
+ * Contacts starting and ending are only recorded while the world steps, into a queue that is reused from step to
+ * step, and are handed to the entities by dispatch afterwards. Handlers can then safely create and destroy bodies,
+ * which Box2D forbids mid-step. Anything they cause, like a destroyed body ending its contacts, is queued and handled
+ * in the same dispatch. Solving callbacks still run straight away, since they can only change the contact being
+ * solved.
  */
 public class CustomContactListener implements ContactListener {
+
+    /**
+     * Flags describing a queued event.
+     */
+    private static final byte END = 1, SENSOR_A = 2, SENSOR_B = 4;
+
+    /**
+     * How many events fit in the queue before it has to grow. Always a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The queued events, as a ring. Events are numbered from head to tail, and event n is at index n & mask.
+     */
+    private PhysicsEntity[] entitiesA = new PhysicsEntity[INITIAL_CAPACITY];
+    private PhysicsEntity[] entitiesB = new PhysicsEntity[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private byte[] categoriesA = new byte[INITIAL_CAPACITY];
+    private byte[] categoriesB = new byte[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int head = 0, tail = 0;
+
+    /**
+     * What each pair of categories does when they touch.
+     */
+    private final ContactTable table;
+
+    /**
+     * Initialises this CustomContactListener.
+     *
+     * @param table what each pair of categories does when they touch
+     */
+    public CustomContactListener(ContactTable table) {
+        this.table = table;
+    }
+
     @Override
     public void beginContact(Contact contact) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> {
-                    if (sensorA) {
-                        ea.beginSensorContact(eb, contact);
-                    } else if (!sensorB) {
-                        ea.beginCollision(eb, contact);
-                    }
-                }
-        );
+        record(contact, 0);
     }
 
     @Override
     public void endContact(Contact contact) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> {
-                    if (sensorA) {
-                        ea.endSensorContact(eb, contact);
-                    } else if (!sensorB) {
-                        ea.endCollision(eb, contact);
-                    }
-                }
-        );
+        record(contact, END);
     }
 
     @Override
     public void preSolve(Contact contact, Manifold manifold) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> ea.preSolve(eb, contact, manifold)
-        );
+        PhysicsEntity a = entityOf(contact.getFixtureA()), b = entityOf(contact.getFixtureB());
+        if (a != null && b != null) {
+            a.preSolve(b, contact, manifold);
+            b.preSolve(a, contact, manifold);
+        }
     }
 
     @Override
     public void postSolve(Contact contact, ContactImpulse contactImpulse) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> ea.postSolve(eb, contact, contactImpulse)
-        );
+        PhysicsEntity a = entityOf(contact.getFixtureA()), b = entityOf(contact.getFixtureB());
+        if (a != null && b != null) {
+            a.postSolve(b, contact, contactImpulse);
+            b.postSolve(a, contact, contactImpulse);
+        }
     }
 
-    public void applyCallback(Contact contact, Callback cb) {
+    private static PhysicsEntity entityOf(Fixture fixture) {
+        Object entity = fixture.getBody().getUserData();
+        return entity instanceof PhysicsEntity ? (PhysicsEntity) entity : null;
+    }
+
+    /**
+     * Queues a contact starting or ending.
+     */
+    private void record(Contact contact, int type) {
         Fixture fixtureA = contact.getFixtureA();
         Fixture fixtureB = contact.getFixtureB();
-        Object a = fixtureA.getBody().getUserData();
-        Object b = fixtureB.getBody().getUserData();
-        if (a instanceof PhysicsEntity && b instanceof PhysicsEntity) {
-            PhysicsEntity ea = (PhysicsEntity) a;
-            PhysicsEntity eb = (PhysicsEntity) b;
-            cb.callback(ea, eb, fixtureA.isSensor(), fixtureB.isSensor());
-            cb.callback(eb, ea, fixtureB.isSensor(), fixtureA.isSensor());
+        PhysicsEntity a = entityOf(fixtureA), b = entityOf(fixtureB);
+        if (a == null || b == null) {
+            return;
+        }
+
+        if (tail - head == flags.length) {
+            grow();
+        }
+        int index = tail & mask;
+        entitiesA[index] = a;
+        entitiesB[index] = b;
+        flags[index] = (byte) (type | (fixtureA.isSensor() ? SENSOR_A : 0) | (fixtureB.isSensor() ? SENSOR_B : 0));
+        categoriesA[index] = (byte) ContactTable.categoryIndex(fixtureA.getFilterData().categoryBits);
+        categoriesB[index] = (byte) ContactTable.categoryIndex(fixtureB.getFilterData().categoryBits);
+        tail++;
+    }
+
+    /**
+     * Doubles the size of the queue, moving the queued events to the start.
+     */
+    private void grow() {
+        int count = tail - head, capacity = flags.length * 2;
+        PhysicsEntity[] newA = new PhysicsEntity[capacity], newB = new PhysicsEntity[capacity];
+        byte[] newFlags = new byte[capacity], newCategoriesA = new byte[capacity], newCategoriesB = new byte[capacity];
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) & mask;
+            newA[i] = entitiesA[index];
+            newB[i] = entitiesB[index];
+            newFlags[i] = flags[index];
+            newCategoriesA[i] = categoriesA[index];
+            newCategoriesB[i] = categoriesB[index];
+        }
+        entitiesA = newA;
+        entitiesB = newB;
+        flags = newFlags;
+        categoriesA = newCategoriesA;
+        categoriesB = newCategoriesB;
+        mask = capacity - 1;
+        head = 0;
+        tail = count;
+    }
+
+    /**
+     * Hands every queued event to both entities involved, including any queued by the handlers themselves. Call
+     * after each world step, never during one.
+     */
+    public void dispatch() {
+        while (head != tail) {
+            int index = head & mask;
+            PhysicsEntity a = entitiesA[index], b = entitiesB[index];
+            int eventFlags = flags[index];
+            int categoryA = categoriesA[index], categoryB = categoriesB[index];
+            entitiesA[index] = entitiesB[index] = null;
+            head++;
+
+            boolean end = (eventFlags & END) != 0;
+            boolean sensorA = (eventFlags & SENSOR_A) != 0, sensorB = (eventFlags & SENSOR_B) != 0;
+            deliver(a, b, categoryA, categoryB, sensorA, sensorB, end);
+            deliver(b, a, categoryB, categoryA, sensorB, sensorA, end);
+        }
+    }
+
+    /**
+     * Hands one side of an event to the table. A sensor hears about everything it touches, but a solid fixture only
+     * about other solid fixtures.
+     */
+    private void deliver(PhysicsEntity entity, PhysicsEntity other, int category, int otherCategory,
+                         boolean sensor, boolean otherSensor, boolean end) {
+        ContactTable.Event event;
+        if (sensor) {
+            event = end ? ContactTable.Event.END_SENSOR : ContactTable.Event.BEGIN_SENSOR;
+        } else if (!otherSensor) {
+            event = end ? ContactTable.Event.END_COLLISION : ContactTable.Event.BEGIN_COLLISION;
+        } else {
+            return;
         }
+        table.dispatch(event, category, otherCategory, entity, other);
     }
 
-    interface Callback {
-        void callback(PhysicsEntity entity, PhysicsEntity other, boolean sensorA, boolean sensorB);
+    /**
+     * @return how many events are waiting to be dispatched
+     */
+    public int getPendingCount() {
+        return tail - head;
     }
 }
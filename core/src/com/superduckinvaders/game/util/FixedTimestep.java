@@ -0,0 +1,114 @@
+package com.superduckinvaders.game.util;
+
+/**
+ * Turns variable frame times into a whole number of fixed physics steps, carrying the remainder over to the next
+ * frame. The leftover fraction of a step is the alpha used to interpolate between the last two physics states when
+ * rendering, so the display rate doesn't have to match the simulation rate.
+ * <p>
+ * At most a fixed number of steps are run per frame. Any time beyond that is dropped, so after a long hitch the game
+ * slows down briefly instead of running a burst of catch-up steps that cause another hitch.
+ */
+public class FixedTimestep {
+
+    /**
+     * The default length of one step, in seconds.
+     */
+    public static final float DEFAULT_STEP = 1 / 60f;
+
+    /**
+     * The default most steps to run in one frame.
+     */
+    public static final int DEFAULT_MAX_STEPS = 5;
+
+    /**
+     * The length of one step, in seconds.
+     */
+    private final float step;
+
+    /**
+     * The most steps to run in one frame.
+     */
+    private int maxSteps;
+
+    /**
+     * Time that hasn't been stepped yet, in seconds.
+     */
+    private float accumulator = 0;
+
+    /**
+     * How much time was dropped in total, in seconds.
+     */
+    private float droppedTime = 0;
+
+    /**
+     * Initialises this FixedTimestep.
+     *
+     * @param step     the length of one step, in seconds
+     * @param maxSteps the most steps to run in one frame
+     */
+    public FixedTimestep(float step, int maxSteps) {
+        this.step = step;
+        setMaxSteps(maxSteps);
+    }
+
+    /**
+     * Adds a frame's worth of time.
+     *
+     * @param delta how much time has passed since the last frame, in seconds
+     * @return how many steps to run this frame
+     */
+    public int advance(float delta) {
+        accumulator += Math.max(0, delta);
+
+        int steps = (int) (accumulator / step);
+        if (steps > maxSteps) {
+            // Keep the fraction so interpolation stays continuous, but drop the whole steps we can't afford.
+            float dropped = (steps - maxSteps) * step;
+            droppedTime += dropped;
+            accumulator -= dropped;
+            steps = maxSteps;
+        }
+        accumulator -= steps * step;
+        return steps;
+    }
+
+    /**
+     * Gets how far the leftover time is through the next step.
+     *
+     * @return the alpha to interpolate from the previous physics state to the current one, from 0 to 1
+     */
+    public float getAlpha() {
+        return Math.min(1, accumulator / step);
+    }
+
+    /**
+     * @return the length of one step, in seconds
+     */
+    public float getStep() {
+        return step;
+    }
+
+    /**
+     * @return the most steps run in one frame
+     */
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * @param maxSteps the most steps to run in one frame, at least 1
+     */
+    public void setMaxSteps(int maxSteps) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("must allow at least one step per frame");
+        }
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * @return how much time has been dropped because frames took too long, in seconds
+     */
+    public float getDroppedTime() {
+        return droppedTime;
+    }
+}
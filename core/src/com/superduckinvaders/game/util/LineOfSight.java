@@ -0,0 +1,166 @@
+package com.superduckinvaders.game.util;
+
+/**
+ * Line of sight checks against a TileGrid. Rays are walked tile by tile with a DDA, so a check costs one lookup
+ * per tile crossed and allocates nothing, unlike a Box2D raycast.
+ * <p>
+ * The map's walls are whole tiles, so this gives the same answers as raycasting their bodies, except for rays that
+ * only graze a tile's corner, which count as blocked.
+ */
+public class LineOfSight {
+
+    /**
+     * How far to pull a swept box's edges in, in pixels, so a box resting flush against a wall isn't counted as
+     * already inside it.
+     */
+    public static final float EDGE_MARGIN = 0.5f;
+
+    /**
+     * The grid of blocked tiles.
+     */
+    private final TileGrid grid;
+
+    /**
+     * The largest gap between the rays used to sweep a box, in pixels. Half a tile, so no tile can slip between them.
+     */
+    private final float raySpacing;
+
+    /**
+     * Initialises this LineOfSight.
+     *
+     * @param grid the grid of tiles that block sight
+     */
+    public LineOfSight(TileGrid grid) {
+        this.grid = grid;
+        this.raySpacing = Math.min(grid.getTileWidth(), grid.getTileHeight()) / 2f;
+    }
+
+    /**
+     * What castRay returns for a line that crosses only unblocked tiles.
+     */
+    public static final float NO_HIT = Float.POSITIVE_INFINITY;
+
+    /**
+     * Gets whether a straight line crosses only unblocked tiles.
+     *
+     * @param x0 the x coordinate of the start, in pixels
+     * @param y0 the y coordinate of the start, in pixels
+     * @param x1 the x coordinate of the end, in pixels
+     * @param y1 the y coordinate of the end, in pixels
+     * @return whether the line is clear
+     */
+    public boolean isClear(float x0, float y0, float x1, float y1) {
+        return castRay(x0, y0, x1, y1) == NO_HIT;
+    }
+
+    /**
+     * Finds how far along a straight line the first blocked tile is.
+     *
+     * @param x0 the x coordinate of the start, in pixels
+     * @param y0 the y coordinate of the start, in pixels
+     * @param x1 the x coordinate of the end, in pixels
+     * @param y1 the y coordinate of the end, in pixels
+     * @return the fraction of the line, from 0 to 1, crossed before entering a blocked tile, or NO_HIT if it is clear
+     */
+    public float castRay(float x0, float y0, float x1, float y1) {
+        int tileWidth = grid.getTileWidth(), tileHeight = grid.getTileHeight();
+        int x = grid.toTileX(x0), y = grid.toTileY(y0);
+        if (grid.isBlocked(x, y)) {
+            return 0;
+        }
+
+        float dx = x1 - x0, dy = y1 - y0;
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1;
+
+        // How far along the line, from 0 to 1, the next vertical and horizontal tile edges are.
+        float tMaxX = Float.POSITIVE_INFINITY, tDeltaX = Float.POSITIVE_INFINITY;
+        if (dx != 0) {
+            tMaxX = ((dx > 0 ? x + 1 : x) * tileWidth - x0) / dx;
+            tDeltaX = tileWidth / Math.abs(dx);
+        }
+        float tMaxY = Float.POSITIVE_INFINITY, tDeltaY = Float.POSITIVE_INFINITY;
+        if (dy != 0) {
+            tMaxY = ((dy > 0 ? y + 1 : y) * tileHeight - y0) / dy;
+            tDeltaY = tileHeight / Math.abs(dy);
+        }
+
+        // Counting the steps keeps rounding errors from overshooting the end tile.
+        int steps = Math.abs(grid.toTileX(x1) - x) + Math.abs(grid.toTileY(y1) - y);
+        for (int i = 0; i < steps; i++) {
+            float t;
+            if (tMaxX < tMaxY) {
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                x += stepX;
+            } else {
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                y += stepY;
+            }
+            if (grid.isBlocked(x, y)) {
+                return Math.max(0, Math.min(t, 1));
+            }
+        }
+        return NO_HIT;
+    }
+
+    /**
+     * Gets whether a box can move in a straight line without touching a blocked tile.
+     *
+     * @param x       the x coordinate of the centre of the box, in pixels
+     * @param y       the y coordinate of the centre of the box, in pixels
+     * @param width   the width of the box, in pixels
+     * @param height  the height of the box, in pixels
+     * @param targetX the x coordinate the centre of the box moves to, in pixels
+     * @param targetY the y coordinate the centre of the box moves to, in pixels
+     * @return whether the box's path is clear
+     */
+    public boolean isBoxClear(float x, float y, float width, float height, float targetX, float targetY) {
+        float halfWidth = Math.max(0, width / 2 - EDGE_MARGIN);
+        float halfHeight = Math.max(0, height / 2 - EDGE_MARGIN);
+
+        // Anything the box passes over is crossed by a ray from its outline, or covered by the box where it ends up.
+        if (grid.isAreaBlocked(targetX - halfWidth, targetY - halfHeight, targetX + halfWidth, targetY + halfHeight)) {
+            return false;
+        }
+
+        int columns = Math.max(1, (int) Math.ceil(2 * halfWidth / raySpacing));
+        int rows = Math.max(1, (int) Math.ceil(2 * halfHeight / raySpacing));
+
+        for (int i = 0; i <= columns; i++) {
+            float offsetX = -halfWidth + 2 * halfWidth * i / columns;
+            if (!isClear(x + offsetX, y - halfHeight, targetX + offsetX, targetY - halfHeight)
+                    || !isClear(x + offsetX, y + halfHeight, targetX + offsetX, targetY + halfHeight)) {
+                return false;
+            }
+        }
+        for (int j = 1; j < rows; j++) {
+            float offsetY = -halfHeight + 2 * halfHeight * j / rows;
+            if (!isClear(x - halfWidth, y + offsetY, targetX - halfWidth, targetY + offsetY)
+                    || !isClear(x + halfWidth, y + offsetY, targetX + halfWidth, targetY + offsetY)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks many lines in one go.
+     *
+     * @param segments the lines, packed as x0, y0, x1, y1 for each line, in pixels
+     * @param count    how many lines to check
+     * @param results  where to store whether each line is clear
+     * @return how many of the lines are clear
+     */
+    public int areClear(float[] segments, int count, boolean[] results) {
+        int clear = 0;
+        for (int i = 0; i < count; i++) {
+            int offset = i * 4;
+            results[i] = isClear(segments[offset], segments[offset + 1], segments[offset + 2], segments[offset + 3]);
+            if (results[i]) {
+                clear++;
+            }
+        }
+        return clear;
+    }
+}
@@ -0,0 +1,200 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Chooses how many solver iterations each world step gets, so a surge of bodies and contacts costs accuracy instead
+ * of frames. It watches how long steps take, and how many bodies and contacts there are, and lowers the velocity
+ * iterations and then the position iterations one at a time while steps run over budget, raising them again the
+ * same way once there is time to spare. Every change is logged.
+ * <p>
+ * The cost of a step is roughly proportional to the number of bodies and contacts, so as well as the measured time
+ * this predicts the next step's time from the current counts. A sudden surge is acted on straight away rather than
+ * only after slow steps have already happened.
+ */
+public class PhysicsGovernor {
+
+    /**
+     * The iterations Box2D recommends, and what every step used before there was a governor.
+     */
+    public static final int DEFAULT_VELOCITY_ITERATIONS = 6, DEFAULT_POSITION_ITERATIONS = 2;
+
+    /**
+     * The default fewest iterations to drop to.
+     */
+    public static final int DEFAULT_MIN_VELOCITY_ITERATIONS = 2, DEFAULT_MIN_POSITION_ITERATIONS = 1;
+
+    /**
+     * The default most time one step should take, in milliseconds. A quarter of a frame at 60 frames per second.
+     */
+    public static final float DEFAULT_BUDGET_MILLIS = 4f;
+
+    /**
+     * How many steps to wait after a change before making another, so each change has time to show.
+     */
+    public static final int COOLDOWN_STEPS = 30;
+
+    /**
+     * How far under budget steps must be before iterations are raised, so quality doesn't flip back and forth.
+     */
+    public static final float RAISE_FRACTION = 0.5f;
+
+    /**
+     * How much each step's measurements move the running averages.
+     */
+    private static final float SMOOTHING = 0.1f;
+
+    private static final String TAG = "PhysicsGovernor";
+
+    /**
+     * The range the iterations are kept within.
+     */
+    private final int minVelocityIterations, maxVelocityIterations, minPositionIterations, maxPositionIterations;
+
+    /**
+     * The most time one step should take, in nanoseconds.
+     */
+    private final long budgetNanos;
+
+    /**
+     * The iterations for the next step.
+     */
+    private int velocityIterations, positionIterations;
+
+    /**
+     * Running averages of how long a step takes, and how long it takes per body and contact, in nanoseconds.
+     */
+    private float averageNanos = 0, averageNanosPerLoad = 0;
+    private boolean measured = false;
+
+    /**
+     * Steps since the last change.
+     */
+    private int sinceChange = COOLDOWN_STEPS;
+
+    /**
+     * How many times the iterations have changed.
+     */
+    private int changeCount = 0;
+
+    /**
+     * Initialises this PhysicsGovernor with the default bounds and budget.
+     */
+    public PhysicsGovernor() {
+        this(DEFAULT_MIN_VELOCITY_ITERATIONS, DEFAULT_VELOCITY_ITERATIONS,
+                DEFAULT_MIN_POSITION_ITERATIONS, DEFAULT_POSITION_ITERATIONS, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Initialises this PhysicsGovernor, starting at the most iterations.
+     *
+     * @param minVelocityIterations the fewest velocity iterations to drop to
+     * @param maxVelocityIterations the most velocity iterations to use
+     * @param minPositionIterations the fewest position iterations to drop to
+     * @param maxPositionIterations the most position iterations to use
+     * @param budgetMillis          the most time one step should take, in milliseconds
+     */
+    public PhysicsGovernor(int minVelocityIterations, int maxVelocityIterations,
+                           int minPositionIterations, int maxPositionIterations, float budgetMillis) {
+        if (minVelocityIterations < 1 || minVelocityIterations > maxVelocityIterations
+                || minPositionIterations < 1 || minPositionIterations > maxPositionIterations) {
+            throw new IllegalArgumentException("Iteration bounds must be at least 1, with the minimum no more than the maximum");
+        }
+        this.minVelocityIterations = minVelocityIterations;
+        this.maxVelocityIterations = maxVelocityIterations;
+        this.minPositionIterations = minPositionIterations;
+        this.maxPositionIterations = maxPositionIterations;
+        this.budgetNanos = (long) (budgetMillis * 1e6f);
+        this.velocityIterations = maxVelocityIterations;
+        this.positionIterations = maxPositionIterations;
+    }
+
+    /**
+     * Records how a step went and chooses the iterations for the next one.
+     *
+     * @param stepNanos    how long the step took, in nanoseconds
+     * @param bodyCount    how many bodies are in the world
+     * @param contactCount how many contacts are in the world
+     */
+    public void update(long stepNanos, int bodyCount, int contactCount) {
+        int load = Math.max(1, bodyCount + contactCount);
+        if (measured) {
+            averageNanos += (stepNanos - averageNanos) * SMOOTHING;
+            averageNanosPerLoad += ((float) stepNanos / load - averageNanosPerLoad) * SMOOTHING;
+        } else {
+            averageNanos = stepNanos;
+            averageNanosPerLoad = (float) stepNanos / load;
+            measured = true;
+        }
+        sinceChange++;
+
+        float predictedNanos = averageNanosPerLoad * load;
+        float expectedNanos = Math.max(averageNanos, predictedNanos);
+        if (expectedNanos > budgetNanos) {
+            // A surge is acted on without waiting for the last change to show.
+            boolean surge = predictedNanos > budgetNanos && predictedNanos > averageNanos * 2;
+            if (sinceChange >= COOLDOWN_STEPS || surge) {
+                lower(bodyCount, contactCount);
+            }
+        } else if (expectedNanos < budgetNanos * RAISE_FRACTION && sinceChange >= COOLDOWN_STEPS) {
+            raise(bodyCount, contactCount);
+        }
+    }
+
+    private void lower(int bodyCount, int contactCount) {
+        if (velocityIterations > minVelocityIterations) {
+            velocityIterations--;
+        } else if (positionIterations > minPositionIterations) {
+            positionIterations--;
+        } else {
+            return;
+        }
+        changed("Lowered", bodyCount, contactCount);
+    }
+
+    private void raise(int bodyCount, int contactCount) {
+        if (positionIterations < maxPositionIterations) {
+            positionIterations++;
+        } else if (velocityIterations < maxVelocityIterations) {
+            velocityIterations++;
+        } else {
+            return;
+        }
+        changed("Raised", bodyCount, contactCount);
+    }
+
+    private void changed(String how, int bodyCount, int contactCount) {
+        sinceChange = 0;
+        changeCount++;
+        Gdx.app.log(TAG, String.format("%s physics quality to %d velocity, %d position iterations (step %.2fms, %d bodies, %d contacts)",
+                how, velocityIterations, positionIterations, averageNanos / 1e6f, bodyCount, contactCount));
+    }
+
+    /**
+     * @return how many velocity iterations the next step should use
+     */
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    /**
+     * @return how many position iterations the next step should use
+     */
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+    /**
+     * @return the running average of how long a step takes, in milliseconds
+     */
+    public float getAverageStepMillis() {
+        return averageNanos / 1e6f;
+    }
+
+    /**
+     * @return how many times the iterations have changed
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+}
@@ -14,9 +14,20 @@ public class RayCast {
         public short maskBits;
 
         public RayCastCB(short maskBits){
-            fraction = 1f;
-            this.maskBits = maskBits;
+            reset(maskBits);
+        }
 
+        /**
+         * Clears the result of the last ray so this callback can be used for another.
+         *
+         * @param maskBits the categories of fixture that block the next ray
+         * @return this callback
+         */
+        public RayCastCB reset(short maskBits) {
+            this.fraction = 1f;
+            this.clear = true;
+            this.maskBits = maskBits;
+            return this;
         }
         @Override
         public float reportRayFixture(Fixture fixture, Vector2 point, Vector2 normal, float fraction){
@@ -0,0 +1,138 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Labels every walkable tile of a TileGrid with the connected region it belongs to, so whether one tile can be
+ * reached from another is a pair of array lookups rather than a search that has to fail.
+ */
+public class RegionMap {
+
+    /**
+     * The region of blocked tiles and anything outside the map.
+     */
+    public static final int NO_REGION = -1;
+
+    /**
+     * The grid the regions are made from.
+     */
+    private final TileGrid grid;
+
+    /**
+     * The region of each tile, indexed like the grid.
+     */
+    private final int[] labels;
+
+    /**
+     * How many tiles are in each region.
+     */
+    private final IntArray sizes = new IntArray();
+
+    /**
+     * Labels the regions of a grid. Tiles are connected to the four tiles next to them.
+     *
+     * @param grid the grid of walkable tiles
+     */
+    public RegionMap(TileGrid grid) {
+        this.grid = grid;
+
+        int tiles = grid.getWidth() * grid.getHeight();
+        labels = new int[tiles];
+        Arrays.fill(labels, NO_REGION);
+
+        int[] queue = new int[tiles];
+        for (int tile = 0; tile < tiles; tile++) {
+            if (labels[tile] == NO_REGION && !grid.isBlocked(tile)) {
+                sizes.add(flood(tile, sizes.size, queue));
+            }
+        }
+    }
+
+    /**
+     * Labels every tile connected to a tile.
+     *
+     * @return how many tiles were labelled
+     */
+    private int flood(int first, int region, int[] queue) {
+        int head = 0, tail = 0;
+        labels[first] = region;
+        queue[tail++] = first;
+
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = grid.tileX(tile), y = grid.tileY(tile);
+            tail = visit(x, y + 1, region, queue, tail);
+            tail = visit(x + 1, y, region, queue, tail);
+            tail = visit(x, y - 1, region, queue, tail);
+            tail = visit(x - 1, y, region, queue, tail);
+        }
+        return tail;
+    }
+
+    private int visit(int x, int y, int region, int[] queue, int tail) {
+        if (grid.isBlocked(x, y)) {
+            return tail;
+        }
+        int index = grid.index(x, y);
+        if (labels[index] != NO_REGION) {
+            return tail;
+        }
+        labels[index] = region;
+        queue[tail] = index;
+        return tail + 1;
+    }
+
+    /**
+     * Gets the region a tile belongs to.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the region, or NO_REGION if the tile is blocked or outside the map
+     */
+    public int getRegion(int tileX, int tileY) {
+        return grid.inBounds(tileX, tileY) ? labels[grid.index(tileX, tileY)] : NO_REGION;
+    }
+
+    /**
+     * Gets the region the tile under a point belongs to.
+     *
+     * @param x the x coordinate, in pixels
+     * @param y the y coordinate, in pixels
+     * @return the region, or NO_REGION if the tile is blocked or outside the map
+     */
+    public int getRegionAt(float x, float y) {
+        return getRegion(grid.toTileX(x), grid.toTileY(y));
+    }
+
+    /**
+     * Gets whether there might be a route between two points. Points on blocked tiles, like someone swimming or
+     * squashed into a wall, could be anywhere nearby, so they are given the benefit of the doubt.
+     *
+     * @param x0 the x coordinate of the first point, in pixels
+     * @param y0 the y coordinate of the first point, in pixels
+     * @param x1 the x coordinate of the second point, in pixels
+     * @param y1 the y coordinate of the second point, in pixels
+     * @return false if the points are definitely in different regions, true otherwise
+     */
+    public boolean mayConnect(float x0, float y0, float x1, float y1) {
+        int a = getRegionAt(x0, y0), b = getRegionAt(x1, y1);
+        return a == NO_REGION || b == NO_REGION || a == b;
+    }
+
+    /**
+     * @return how many regions there are
+     */
+    public int getRegionCount() {
+        return sizes.size;
+    }
+
+    /**
+     * @param region the region
+     * @return how many tiles are in the region
+     */
+    public int getRegionSize(int region) {
+        return sizes.get(region);
+    }
+}
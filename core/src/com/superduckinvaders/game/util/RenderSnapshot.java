@@ -0,0 +1,123 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * Everything the game screen needs to draw one frame, copied out of a Round so it can be drawn while the next
+ * update runs on another thread. Snapshots are reused: the simulation fills one in, hands it over through a
+ * SnapshotExchange, and must not touch it again until it is handed back.
+ */
+public class RenderSnapshot {
+
+    /**
+     * Which update this snapshot was taken after. Later snapshots have bigger sequence numbers.
+     */
+    long sequence = 0;
+
+    /**
+     * The sprites to draw, in order, with the bottom left corner of each.
+     */
+    private final Array<TextureRegion> sprites = new Array<TextureRegion>(false, 128, TextureRegion.class);
+    private float[] spriteXs = new float[128], spriteYs = new float[128];
+
+    /**
+     * The centres of the mobs, for the minimap.
+     */
+    private float[] mobXs = new float[64], mobYs = new float[64];
+    private int mobCount = 0;
+
+    /**
+     * The player's centre, which the cameras follow, and the bottom left corner of the player, for the minimap.
+     */
+    public float playerCentreX, playerCentreY, playerX, playerY;
+
+    /**
+     * Values shown in the UI.
+     */
+    public String objectiveString = "";
+    public int score, currentHealth, maximumHealth;
+    public float flyingTimer;
+    public final Array<TextureRegion> pickups = new Array<TextureRegion>();
+
+    /**
+     * Empties this snapshot so it can be filled in again.
+     */
+    public void clear() {
+        sprites.clear();
+        mobCount = 0;
+        pickups.clear();
+        objectiveString = "";
+    }
+
+    /**
+     * Adds a sprite to draw.
+     *
+     * @param region the sprite
+     * @param x      the x coordinate of its bottom left corner
+     * @param y      the y coordinate of its bottom left corner
+     */
+    public void addSprite(TextureRegion region, float x, float y) {
+        int index = sprites.size;
+        if (index == spriteXs.length) {
+            spriteXs = Arrays.copyOf(spriteXs, index * 2);
+            spriteYs = Arrays.copyOf(spriteYs, index * 2);
+        }
+        sprites.add(region);
+        spriteXs[index] = x;
+        spriteYs[index] = y;
+    }
+
+    /**
+     * Adds a mob to show on the minimap.
+     *
+     * @param x the x coordinate of its centre
+     * @param y the y coordinate of its centre
+     */
+    public void addMob(float x, float y) {
+        if (mobCount == mobXs.length) {
+            mobXs = Arrays.copyOf(mobXs, mobCount * 2);
+            mobYs = Arrays.copyOf(mobYs, mobCount * 2);
+        }
+        mobXs[mobCount] = x;
+        mobYs[mobCount] = y;
+        mobCount++;
+    }
+
+    public int getSpriteCount() {
+        return sprites.size;
+    }
+
+    public TextureRegion getSprite(int index) {
+        return sprites.get(index);
+    }
+
+    public float getSpriteX(int index) {
+        return spriteXs[index];
+    }
+
+    public float getSpriteY(int index) {
+        return spriteYs[index];
+    }
+
+    public int getMobCount() {
+        return mobCount;
+    }
+
+    public float getMobX(int index) {
+        return mobXs[index];
+    }
+
+    public float getMobY(int index) {
+        return mobYs[index];
+    }
+
+    /**
+     * @return which update this snapshot was taken after
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
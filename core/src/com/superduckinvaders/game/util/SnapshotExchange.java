@@ -0,0 +1,62 @@
+package com.superduckinvaders.game.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands render snapshots from the simulation thread to the render thread without locking. There are three
+ * snapshots: one the simulation is filling in, one the renderer is drawing, and the latest finished one between
+ * them. Each side only ever swaps its own snapshot with the one in the middle, so neither ever waits for the other
+ * and the renderer always gets the newest snapshot.
+ */
+public class SnapshotExchange {
+
+    /**
+     * The latest finished snapshot, or a stale one the renderer has handed back.
+     */
+    private final AtomicReference<RenderSnapshot> ready = new AtomicReference<RenderSnapshot>(new RenderSnapshot());
+
+    /**
+     * The snapshot the simulation is filling in. Only touched by the simulation thread.
+     */
+    private RenderSnapshot back = new RenderSnapshot();
+
+    /**
+     * The snapshot the renderer is drawing. Only touched by the render thread.
+     */
+    private RenderSnapshot front = new RenderSnapshot();
+
+    /**
+     * How many snapshots have been published. Only touched by the simulation thread.
+     */
+    private long published = 0;
+
+    /**
+     * Gets an empty snapshot for the simulation to fill in. Call from the simulation thread.
+     *
+     * @return the snapshot to fill in, which belongs to the simulation until it is published
+     */
+    public RenderSnapshot beginSnapshot() {
+        back.clear();
+        return back;
+    }
+
+    /**
+     * Hands the snapshot from beginSnapshot over to the renderer. Call from the simulation thread.
+     */
+    public void publish() {
+        back.sequence = ++published;
+        back = ready.getAndSet(back);
+    }
+
+    /**
+     * Gets the newest published snapshot. Call from the render thread.
+     *
+     * @return the snapshot to draw, which belongs to the renderer until the next call
+     */
+    public RenderSnapshot acquire() {
+        if (ready.get().sequence > front.sequence) {
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+}
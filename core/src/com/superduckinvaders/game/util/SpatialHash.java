@@ -0,0 +1,325 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid of cells over the map, each holding the boxes whose centres lie in it, so finding what is near a
+ * point only looks at the cells around it instead of everything in the round. Boxes are kept in arrays and each
+ * cell is a doubly linked list threaded through them, so a box can be moved or removed without searching for it.
+ * <p>
+ * Adding a box gives back a handle, which is how it is moved and removed afterwards. Moving a box within its cell
+ * only updates its bounds. Handles of removed boxes are reused.
+ *
+ * @param <T> the type of thing stored
+ */
+public class SpatialHash<T> {
+
+    /**
+     * The size of each cell, in pixels.
+     */
+    private final int cellSize;
+
+    /**
+     * The number of cells across and up the map.
+     */
+    private final int width, height;
+
+    /**
+     * The first box in each cell, or -1 for an empty cell.
+     */
+    private final int[] heads;
+
+    /**
+     * The boxes, indexed by handle. Each has the cell it is in, or -1 if the handle is free, and the boxes before
+     * and after it in the same cell, or -1 at either end. Free handles are linked through next.
+     */
+    private Object[] items = new Object[64];
+    private float[] minXs = new float[64], minYs = new float[64], maxXs = new float[64], maxYs = new float[64];
+    private int[] cells = new int[64], previous = new int[64], next = new int[64];
+    private int used = 0, size = 0, free = -1;
+
+    /**
+     * Half the width and height of the biggest box, so queries know how far outside their area to look for centres.
+     */
+    private float margin = 0;
+
+    /**
+     * The best boxes found so far by nearest, and how far away they are. Reused between calls.
+     */
+    private int[] nearestHandles = new int[8];
+    private float[] nearestDistances = new float[8];
+
+    /**
+     * Initialises this SpatialHash.
+     *
+     * @param mapWidth  the width of the map, in pixels
+     * @param mapHeight the height of the map, in pixels
+     * @param cellSize  the size of each cell, in pixels
+     */
+    public SpatialHash(int mapWidth, int mapHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.width = Math.max(1, (mapWidth + cellSize - 1) / cellSize);
+        this.height = Math.max(1, (mapHeight + cellSize - 1) / cellSize);
+        this.heads = new int[width * height];
+        Arrays.fill(heads, -1);
+    }
+
+    /**
+     * Removes everything. Every handle given out so far becomes invalid.
+     */
+    public void clear() {
+        Arrays.fill(heads, -1);
+        Arrays.fill(items, 0, used, null);
+        used = size = 0;
+        free = -1;
+        margin = 0;
+    }
+
+    /**
+     * Adds a box.
+     *
+     * @param item the thing the box belongs to
+     * @param minX the x coordinate of the left of the box, in pixels
+     * @param minY the y coordinate of the bottom of the box, in pixels
+     * @param maxX the x coordinate of the right of the box, in pixels
+     * @param maxY the y coordinate of the top of the box, in pixels
+     * @return the handle to move or remove the box with
+     */
+    public int insert(T item, float minX, float minY, float maxX, float maxY) {
+        int handle;
+        if (free != -1) {
+            handle = free;
+            free = next[handle];
+        } else {
+            if (used == items.length) {
+                grow(used * 2);
+            }
+            handle = used++;
+        }
+        items[handle] = item;
+        setBounds(handle, minX, minY, maxX, maxY);
+        link(handle, cellAt((minX + maxX) / 2, (minY + maxY) / 2));
+        size++;
+        return handle;
+    }
+
+    /**
+     * Moves a box, only touching the cells if its centre has moved into a different one.
+     *
+     * @param handle the handle from insert
+     * @param minX   the x coordinate of the left of the box, in pixels
+     * @param minY   the y coordinate of the bottom of the box, in pixels
+     * @param maxX   the x coordinate of the right of the box, in pixels
+     * @param maxY   the y coordinate of the top of the box, in pixels
+     */
+    public void move(int handle, float minX, float minY, float maxX, float maxY) {
+        setBounds(handle, minX, minY, maxX, maxY);
+        int cell = cellAt((minX + maxX) / 2, (minY + maxY) / 2);
+        if (cell != cells[handle]) {
+            unlink(handle);
+            link(handle, cell);
+        }
+    }
+
+    /**
+     * Removes a box. Its handle may be given out again by a later insert.
+     *
+     * @param handle the handle from insert
+     */
+    public void remove(int handle) {
+        unlink(handle);
+        cells[handle] = -1;
+        items[handle] = null;
+        next[handle] = free;
+        free = handle;
+        size--;
+    }
+
+    private void setBounds(int handle, float minX, float minY, float maxX, float maxY) {
+        minXs[handle] = minX;
+        minYs[handle] = minY;
+        maxXs[handle] = maxX;
+        maxYs[handle] = maxY;
+        margin = Math.max(margin, Math.max(maxX - minX, maxY - minY) / 2);
+    }
+
+    private void link(int handle, int cell) {
+        cells[handle] = cell;
+        previous[handle] = -1;
+        next[handle] = heads[cell];
+        if (heads[cell] != -1) {
+            previous[heads[cell]] = handle;
+        }
+        heads[cell] = handle;
+    }
+
+    private void unlink(int handle) {
+        if (previous[handle] != -1) {
+            next[previous[handle]] = next[handle];
+        } else {
+            heads[cells[handle]] = next[handle];
+        }
+        if (next[handle] != -1) {
+            previous[next[handle]] = previous[handle];
+        }
+    }
+
+    private void grow(int capacity) {
+        items = Arrays.copyOf(items, capacity);
+        minXs = Arrays.copyOf(minXs, capacity);
+        minYs = Arrays.copyOf(minYs, capacity);
+        maxXs = Arrays.copyOf(maxXs, capacity);
+        maxYs = Arrays.copyOf(maxYs, capacity);
+        cells = Arrays.copyOf(cells, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    /**
+     * Finds every box that overlaps or touches an area.
+     *
+     * @param minX    the x coordinate of the left of the area, in pixels
+     * @param minY    the y coordinate of the bottom of the area, in pixels
+     * @param maxX    the x coordinate of the right of the area, in pixels
+     * @param maxY    the y coordinate of the top of the area, in pixels
+     * @param results emptied, then filled with the things whose boxes were found
+     */
+    @SuppressWarnings("unchecked")
+    public void query(float minX, float minY, float maxX, float maxY, Array<T> results) {
+        results.clear();
+        int fromX = cellX(minX - margin), toX = cellX(maxX + margin);
+        int fromY = cellY(minY - margin), toY = cellY(maxY + margin);
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                for (int i = heads[cellY * width + cellX]; i != -1; i = next[i]) {
+                    if (minXs[i] <= maxX && maxXs[i] >= minX && minYs[i] <= maxY && maxYs[i] >= minY) {
+                        results.add((T) items[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds every box within a distance of a point.
+     *
+     * @param x       the x coordinate of the point, in pixels
+     * @param y       the y coordinate of the point, in pixels
+     * @param radius  the distance, in pixels
+     * @param results emptied, then filled with the things whose boxes were found
+     */
+    @SuppressWarnings("unchecked")
+    public void queryRadius(float x, float y, float radius, Array<T> results) {
+        results.clear();
+        float radiusSquared = radius * radius;
+        int fromX = cellX(x - radius - margin), toX = cellX(x + radius + margin);
+        int fromY = cellY(y - radius - margin), toY = cellY(y + radius + margin);
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                for (int i = heads[cellY * width + cellX]; i != -1; i = next[i]) {
+                    if (distanceSquared(i, x, y) <= radiusSquared) {
+                        results.add((T) items[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the boxes nearest to a point, searching outwards a ring of cells at a time and stopping as soon as no
+     * further ring could hold anything nearer.
+     *
+     * @param x       the x coordinate of the point, in pixels
+     * @param y       the y coordinate of the point, in pixels
+     * @param k       the most boxes to find
+     * @param results emptied, then filled with the things whose boxes were found, nearest first
+     */
+    @SuppressWarnings("unchecked")
+    public void nearest(float x, float y, int k, Array<T> results) {
+        results.clear();
+        if (k <= 0) {
+            return;
+        }
+        if (nearestHandles.length < k) {
+            nearestHandles = new int[k];
+            nearestDistances = new float[k];
+        }
+        int found = 0;
+        int originX = cellX(x), originY = cellY(y);
+        int rings = Math.max(width, height);
+        for (int ring = 0; ring <= rings; ring++) {
+            // Nothing centred in this ring can be nearer than its inner edge, less the biggest box.
+            float bound = Math.max(0, (ring - 1) * cellSize - margin);
+            if (found == k && nearestDistances[k - 1] < bound * bound) {
+                break;
+            }
+            for (int cellY = originY - ring; cellY <= originY + ring; cellY++) {
+                if (cellY < 0 || cellY >= height) {
+                    continue;
+                }
+                boolean edgeRow = cellY == originY - ring || cellY == originY + ring;
+                for (int cellX = originX - ring; cellX <= originX + ring; cellX += edgeRow ? 1 : 2 * Math.max(ring, 1)) {
+                    if (cellX < 0 || cellX >= width) {
+                        continue;
+                    }
+                    for (int i = heads[cellY * width + cellX]; i != -1; i = next[i]) {
+                        found = offer(i, distanceSquared(i, x, y), found, k);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            results.add((T) items[nearestHandles[i]]);
+        }
+    }
+
+    /**
+     * Adds a box to the best found by nearest if it is near enough, keeping them in order.
+     *
+     * @return how many have been found now
+     */
+    private int offer(int handle, float distanceSquared, int found, int k) {
+        if (found == k && distanceSquared >= nearestDistances[k - 1]) {
+            return found;
+        }
+        int index = found == k ? k - 1 : found++;
+        while (index > 0 && nearestDistances[index - 1] > distanceSquared) {
+            nearestHandles[index] = nearestHandles[index - 1];
+            nearestDistances[index] = nearestDistances[index - 1];
+            index--;
+        }
+        nearestHandles[index] = handle;
+        nearestDistances[index] = distanceSquared;
+        return found;
+    }
+
+    /**
+     * Gets the square of the distance from a point to the nearest point of a box, which is 0 inside it.
+     */
+    private float distanceSquared(int handle, float x, float y) {
+        float dx = Math.max(0, Math.max(minXs[handle] - x, x - maxXs[handle]));
+        float dy = Math.max(0, Math.max(minYs[handle] - y, y - maxYs[handle]));
+        return dx * dx + dy * dy;
+    }
+
+    private int cellX(float x) {
+        return Math.max(0, Math.min(width - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int cellY(float y) {
+        return Math.max(0, Math.min(height - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    private int cellAt(float x, float y) {
+        return cellY(y) * width + cellX(x);
+    }
+
+    /**
+     * @return how many boxes there are
+     */
+    public int size() {
+        return size;
+    }
+}
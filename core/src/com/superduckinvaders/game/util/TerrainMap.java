@@ -0,0 +1,148 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+
+/**
+ * Records what kind of ground each map tile is, so terrain effects like swimming can be looked up directly instead
+ * of being tracked through physics contacts.
+ */
+public class TerrainMap {
+
+    /**
+     * The kinds of terrain a tile can be.
+     */
+    public enum Terrain {
+        /**
+         * Open ground.
+         */
+        GROUND,
+        /**
+         * Water, which the player swims through and mobs can't enter.
+         */
+        WATER,
+        /**
+         * A wall or obstacle. Also used for anything outside the map.
+         */
+        SOLID
+    }
+
+    /**
+     * Cached so looking up a terrain doesn't copy the values array.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The size of the map, in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The size of one tile, in pixels.
+     */
+    private final int tileWidth, tileHeight;
+
+    /**
+     * The ordinal of each tile's terrain, stored row by row.
+     */
+    private final byte[] terrain;
+
+    /**
+     * Creates a TerrainMap where every tile is ground.
+     *
+     * @param width      the width of the map, in tiles
+     * @param height     the height of the map, in tiles
+     * @param tileWidth  the width of one tile, in pixels
+     * @param tileHeight the height of one tile, in pixels
+     */
+    public TerrainMap(int width, int height, int tileWidth, int tileHeight) {
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.terrain = new byte[width * height];
+    }
+
+    /**
+     * Sets the terrain of every non-empty cell of a map layer. Later layers overwrite earlier ones.
+     *
+     * @param layer the layer to read, or null to do nothing
+     * @param type  the terrain to give its cells
+     */
+    public void setLayer(TiledMapTileLayer layer, Terrain type) {
+        if (layer == null) {
+            return;
+        }
+
+        for (int x = 0; x < Math.min(width, layer.getWidth()); x++) {
+            for (int y = 0; y < Math.min(height, layer.getHeight()); y++) {
+                if (layer.getCell(x, y) != null) {
+                    set(x, y, type);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the terrain of a tile. Tiles outside the map are ignored.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @param type  the terrain
+     */
+    public void set(int tileX, int tileY, Terrain type) {
+        if (tileX >= 0 && tileX < width && tileY >= 0 && tileY < height) {
+            terrain[tileY * width + tileX] = (byte) type.ordinal();
+        }
+    }
+
+    /**
+     * Gets the terrain of a tile.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the terrain, SOLID outside the map
+     */
+    public Terrain get(int tileX, int tileY) {
+        if (tileX < 0 || tileX >= width || tileY < 0 || tileY >= height) {
+            return Terrain.SOLID;
+        }
+        return TERRAINS[terrain[tileY * width + tileX]];
+    }
+
+    /**
+     * Gets the terrain under a point.
+     *
+     * @param x the x coordinate, in pixels
+     * @param y the y coordinate, in pixels
+     * @return the terrain, SOLID outside the map
+     */
+    public Terrain getAt(float x, float y) {
+        return get((int) Math.floor(x / tileWidth), (int) Math.floor(y / tileHeight));
+    }
+
+    /**
+     * Gets whether any part of a box is over a kind of terrain. Boxes that only touch a tile's edge aren't over it.
+     *
+     * @param type   the terrain to look for
+     * @param x      the x coordinate of the centre of the box, in pixels
+     * @param y      the y coordinate of the centre of the box, in pixels
+     * @param width  the width of the box, in pixels
+     * @param height the height of the box, in pixels
+     * @return whether the box overlaps a tile of that terrain
+     */
+    public boolean overlaps(Terrain type, float x, float y, float width, float height) {
+        int fromX = (int) Math.floor((x - width / 2) / tileWidth);
+        int fromY = (int) Math.floor((y - height / 2) / tileHeight);
+        int toX = (int) Math.ceil((x + width / 2) / tileWidth) - 1;
+        int toY = (int) Math.ceil((y + height / 2) / tileHeight) - 1;
+
+        for (int tileX = fromX; tileX <= toX; tileX++) {
+            for (int tileY = fromY; tileY <= toY; tileY++) {
+                if (get(tileX, tileY) == type) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,277 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+
+/**
+ * A packed grid of blocked map tiles. Lets us answer "is this tile blocked?" with an array lookup
+ * instead of a Box2D query. Anything outside the map counts as blocked, just like the map edge obstacles.
+ */
+public class TileGrid {
+
+    /**
+     * The size of the grid, in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The size of one tile, in pixels.
+     */
+    private final int tileWidth, tileHeight;
+
+    /**
+     * One bit per tile, set if the tile is blocked. Tiles are stored row by row.
+     */
+    private final long[] bits;
+
+    /**
+     * How far short of a blocked tile clipped moves stop, in pixels, so the mover isn't left touching it.
+     */
+    public static final float CLIP_GAP = 0.01f;
+
+    /**
+     * Creates an empty TileGrid with no blocked tiles.
+     *
+     * @param width      the width of the grid, in tiles
+     * @param height     the height of the grid, in tiles
+     * @param tileWidth  the width of one tile, in pixels
+     * @param tileHeight the height of one tile, in pixels
+     */
+    public TileGrid(int width, int height, int tileWidth, int tileHeight) {
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.bits = new long[(width * height + 63) >> 6];
+    }
+
+    /**
+     * Marks the specified tile as blocked. Tiles outside the grid are ignored.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     */
+    public void block(int tileX, int tileY) {
+        if (inBounds(tileX, tileY)) {
+            int index = index(tileX, tileY);
+            bits[index >> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * Marks every non-empty cell of a map layer as blocked.
+     *
+     * @param layer the layer to read, or null to do nothing
+     */
+    public void blockLayer(TiledMapTileLayer layer) {
+        if (layer == null) {
+            return;
+        }
+
+        for (int x = 0; x < layer.getWidth(); x++) {
+            for (int y = 0; y < layer.getHeight(); y++) {
+                if (layer.getCell(x, y) != null) {
+                    block(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether the specified tile is blocked.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return whether the tile is blocked, always true outside the grid
+     */
+    public boolean isBlocked(int tileX, int tileY) {
+        return !inBounds(tileX, tileY) || isBlocked(index(tileX, tileY));
+    }
+
+    /**
+     * Gets whether the tile with the specified index is blocked.
+     *
+     * @param index the tile index, as returned by {@link #index(int, int)}
+     * @return whether the tile is blocked
+     */
+    public boolean isBlocked(int index) {
+        return (bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets whether the tile under the specified map position is blocked.
+     *
+     * @param x the x coordinate, in pixels
+     * @param y the y coordinate, in pixels
+     * @return whether the tile under the position is blocked
+     */
+    public boolean isBlockedAt(float x, float y) {
+        return isBlocked(toTileX(x), toTileY(y));
+    }
+
+    /**
+     * Gets whether any tile touching a rectangle is blocked. Tiles that only share an edge with it count.
+     *
+     * @param minX the x coordinate of the left of the rectangle, in pixels
+     * @param minY the y coordinate of the bottom of the rectangle, in pixels
+     * @param maxX the x coordinate of the right of the rectangle, in pixels
+     * @param maxY the y coordinate of the top of the rectangle, in pixels
+     * @return whether any tile touching the rectangle is blocked
+     */
+    public boolean isAreaBlocked(float minX, float minY, float maxX, float maxY) {
+        int toX = toTileX(maxX), toY = toTileY(maxY);
+        for (int tileX = toTileX(minX); tileX <= toX; tileX++) {
+            for (int tileY = toTileY(minY); tileY <= toY; tileY++) {
+                if (isBlocked(tileX, tileY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shortens a horizontal move of a rectangle so it stops just short of the first blocked tile in its way. Tiles
+     * the rectangle already touches are ignored, so something stuck in a wall can still get out.
+     *
+     * @param minX the x coordinate of the left of the rectangle, in pixels
+     * @param minY the y coordinate of the bottom of the rectangle, in pixels
+     * @param maxX the x coordinate of the right of the rectangle, in pixels
+     * @param maxY the y coordinate of the top of the rectangle, in pixels
+     * @param dx   how far to move it, in pixels
+     * @return how far it can move, in pixels
+     */
+    public float clipMoveX(float minX, float minY, float maxX, float maxY, float dx) {
+        if (dx > 0) {
+            int to = toTileX(maxX + dx);
+            for (int column = toTileX(maxX) + 1; column <= to; column++) {
+                if (isAreaBlocked(column * tileWidth, minY, column * tileWidth, maxY)) {
+                    return Math.max(0, column * tileWidth - maxX - CLIP_GAP);
+                }
+            }
+        } else if (dx < 0) {
+            int to = toTileX(minX + dx);
+            for (int column = toTileX(minX) - 1; column >= to; column--) {
+                if (isAreaBlocked(column * tileWidth, minY, column * tileWidth, maxY)) {
+                    return Math.min(0, (column + 1) * tileWidth - minX + CLIP_GAP);
+                }
+            }
+        }
+        return dx;
+    }
+
+    /**
+     * Shortens a vertical move of a rectangle so it stops just short of the first blocked tile in its way. Tiles
+     * the rectangle already touches are ignored, so something stuck in a wall can still get out.
+     *
+     * @param minX the x coordinate of the left of the rectangle, in pixels
+     * @param minY the y coordinate of the bottom of the rectangle, in pixels
+     * @param maxX the x coordinate of the right of the rectangle, in pixels
+     * @param maxY the y coordinate of the top of the rectangle, in pixels
+     * @param dy   how far to move it, in pixels
+     * @return how far it can move, in pixels
+     */
+    public float clipMoveY(float minX, float minY, float maxX, float maxY, float dy) {
+        if (dy > 0) {
+            int to = toTileY(maxY + dy);
+            for (int row = toTileY(maxY) + 1; row <= to; row++) {
+                if (isAreaBlocked(minX, row * tileHeight, maxX, row * tileHeight)) {
+                    return Math.max(0, row * tileHeight - maxY - CLIP_GAP);
+                }
+            }
+        } else if (dy < 0) {
+            int to = toTileY(minY + dy);
+            for (int row = toTileY(minY) - 1; row >= to; row--) {
+                if (isAreaBlocked(minX, row * tileHeight, maxX, row * tileHeight)) {
+                    return Math.min(0, (row + 1) * tileHeight - minY + CLIP_GAP);
+                }
+            }
+        }
+        return dy;
+    }
+
+    /**
+     * Gets whether the specified tile lies inside the grid.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return whether the tile is inside the grid
+     */
+    public boolean inBounds(int tileX, int tileY) {
+        return tileX >= 0 && tileY >= 0 && tileX < width && tileY < height;
+    }
+
+    /**
+     * Gets the index of a tile, for use with the index based methods.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the index of the tile
+     */
+    public int index(int tileX, int tileY) {
+        return tileY * width + tileX;
+    }
+
+    /**
+     * @param index a tile index
+     * @return the x coordinate of the tile with the specified index
+     */
+    public int tileX(int index) {
+        return index % width;
+    }
+
+    /**
+     * @param index a tile index
+     * @return the y coordinate of the tile with the specified index
+     */
+    public int tileY(int index) {
+        return index / width;
+    }
+
+    /**
+     * Converts a map x coordinate in pixels to a tile x coordinate.
+     *
+     * @param x the x coordinate, in pixels
+     * @return the x coordinate of the tile containing it
+     */
+    public int toTileX(float x) {
+        return (int) Math.floor(x / tileWidth);
+    }
+
+    /**
+     * Converts a map y coordinate in pixels to a tile y coordinate.
+     *
+     * @param y the y coordinate, in pixels
+     * @return the y coordinate of the tile containing it
+     */
+    public int toTileY(float y) {
+        return (int) Math.floor(y / tileHeight);
+    }
+
+    /**
+     * @return the width of this TileGrid, in tiles
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of this TileGrid, in tiles
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the width of one tile, in pixels
+     */
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * @return the height of one tile, in pixels
+     */
+    public int getTileHeight() {
+        return tileHeight;
+    }
+}
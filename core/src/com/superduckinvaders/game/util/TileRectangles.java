@@ -0,0 +1,72 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Covers the blocked tiles of a TileGrid with a few large rectangles, so the map can be given one physics body per
+ * rectangle instead of one per tile.
+ */
+public class TileRectangles {
+
+    private TileRectangles() {
+    }
+
+    /**
+     * Greedily merges blocked tiles into rectangles. Starting from each uncovered tile, row by row, a rectangle is
+     * grown as far right as it can go and then as far up as the whole width allows. The rectangles never overlap and
+     * cover exactly the blocked tiles inside the grid.
+     *
+     * @param grid the grid to cover
+     * @return the rectangles, in tiles
+     */
+    public static List<Rectangle> merge(TileGrid grid) {
+        int width = grid.getWidth(), height = grid.getHeight();
+        boolean[] covered = new boolean[width * height];
+        List<Rectangle> rectangles = new ArrayList<Rectangle>();
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!isFree(grid, covered, x, y)) {
+                    continue;
+                }
+
+                int right = x + 1;
+                while (right < width && isFree(grid, covered, right, y)) {
+                    right++;
+                }
+
+                int top = y + 1;
+                while (top < height && isRowFree(grid, covered, x, right, top)) {
+                    top++;
+                }
+
+                for (int coverY = y; coverY < top; coverY++) {
+                    for (int coverX = x; coverX < right; coverX++) {
+                        covered[grid.index(coverX, coverY)] = true;
+                    }
+                }
+                rectangles.add(new Rectangle(x, y, right - x, top - y));
+            }
+        }
+        return rectangles;
+    }
+
+    /**
+     * Gets whether a tile is blocked and not yet part of a rectangle.
+     */
+    private static boolean isFree(TileGrid grid, boolean[] covered, int x, int y) {
+        return grid.inBounds(x, y) && grid.isBlocked(x, y) && !covered[grid.index(x, y)];
+    }
+
+    private static boolean isRowFree(TileGrid grid, boolean[] covered, int fromX, int toX, int y) {
+        for (int x = fromX; x < toX; x++) {
+            if (!isFree(grid, covered, x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
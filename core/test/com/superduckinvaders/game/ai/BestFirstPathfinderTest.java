@@ -0,0 +1,85 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the best-first search keeps working when its arrays are reused.
+ */
+public class BestFirstPathfinderTest {
+    private TileGrid grid;
+    private IntArray path;
+
+    @Before
+    public void setUp() {
+        // A wall down the middle with a gap at the top.
+        grid = new TileGrid(10, 10, 32, 32);
+        for (int y = 0; y < 9; y++) {
+            grid.block(5, y);
+        }
+        path = new IntArray();
+    }
+
+    @Test
+    public void FindsPathAroundWall() {
+        BestFirstPathfinder pathfinder = new BestFirstPathfinder(grid, 100);
+        assertTrue(pathfinder.findPath(grid.index(4, 0), grid.index(6, 0), path));
+        assertEquals(path.first(), grid.index(4, 0));
+        assertEquals(path.peek(), grid.index(6, 0));
+        for (int i = 0; i < path.size; i++) {
+            assertFalse(grid.isBlocked(path.get(i)));
+        }
+    }
+
+    @Test
+    public void GivesUpPastIterationLimit() {
+        BestFirstPathfinder pathfinder = new BestFirstPathfinder(grid, 10);
+        assertFalse(pathfinder.findPath(grid.index(4, 0), grid.index(6, 0), path));
+        assertEquals(path.size, 0);
+    }
+
+    @Test
+    public void RepeatedSearchesAgree() {
+        BestFirstPathfinder pathfinder = new BestFirstPathfinder(grid, 100);
+        assertTrue(pathfinder.findPath(grid.index(0, 0), grid.index(9, 0), path));
+        int[] first = path.toArray();
+
+        // A search in between leaves stale state behind that the next search must ignore.
+        assertTrue(pathfinder.findPath(grid.index(9, 9), grid.index(0, 9), path));
+        assertTrue(pathfinder.findPath(grid.index(0, 0), grid.index(9, 0), path));
+        assertEquals(path.size, first.length);
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(path.get(i), first[i]);
+        }
+    }
+
+    @Test
+    public void SearchesDontAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        BestFirstPathfinder pathfinder = new BestFirstPathfinder(grid, 100);
+
+        int found = 0;
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 1000; i++) {
+                found += pathfinder.findPath(grid.index(0, 0), grid.index(9, 0), path) ? 1 : 0;
+                found += pathfinder.findPath(grid.index(9, 9), grid.index(0, 9), path) ? 1 : 0;
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            // The first round warms up and grows the path; allow for the measurement itself in the second.
+            if (round == 1) {
+                assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+            }
+        }
+        assertEquals(found, 4000);
+    }
+}
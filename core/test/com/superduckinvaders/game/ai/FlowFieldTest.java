@@ -0,0 +1,78 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the shared flow field leads towards its goal.
+ */
+public class FlowFieldTest {
+    private TileGrid grid;
+
+    @Before
+    public void setUp() {
+        // A 10x10 room with a wall down x = 5 that has a gap at y = 9.
+        grid = new TileGrid(10, 10, 32, 32);
+        for (int y = 0; y < 9; y++) {
+            grid.block(5, y);
+        }
+    }
+
+    @Test
+    public void HasNoStepsBeforeFirstUpdate() {
+        FlowField field = new FlowField(grid, 20);
+        assertEquals(field.getNextTile(1, 1), FlowField.NO_STEP);
+    }
+
+    @Test
+    public void StepsTowardsGoal() {
+        FlowField field = new FlowField(grid, 20);
+        field.update(2, 2);
+        assertEquals(field.getNextTile(2, 2), grid.index(2, 2));
+        assertEquals(field.getDistance(4, 2), 2);
+        int next = field.getNextTile(4, 2);
+        assertEquals(grid.tileY(next), 2);
+        assertEquals(grid.tileX(next), 3);
+    }
+
+    @Test
+    public void GoesAroundWalls() {
+        FlowField field = new FlowField(grid, 40);
+        field.update(2, 0);
+
+        // Follow the field from the other side of the wall.
+        int x = 8, y = 0, steps = 0;
+        while (grid.index(x, y) != field.getGoal()) {
+            int next = field.getNextTile(x, y);
+            assertTrue(next != FlowField.NO_STEP);
+            assertFalse(grid.isBlocked(next));
+            x = grid.tileX(next);
+            y = grid.tileY(next);
+            steps++;
+        }
+        assertEquals(steps, field.getDistance(8, 0));
+        assertEquals(steps, 3 + 9 + 9 + 3);
+    }
+
+    @Test
+    public void StopsAtRadius() {
+        FlowField field = new FlowField(grid, 3);
+        field.update(0, 0);
+        assertEquals(field.getDistance(3, 0), 3);
+        assertEquals(field.getNextTile(4, 0), FlowField.NO_STEP);
+    }
+
+    @Test
+    public void OnlyRebuildsWhenGoalMoves() {
+        FlowField field = new FlowField(grid, 20);
+        assertTrue(field.update(1, 1));
+        assertFalse(field.update(1, 1));
+        assertTrue(field.update(1, 2));
+        assertEquals(field.getNextTile(1, 1), grid.index(1, 2));
+    }
+}
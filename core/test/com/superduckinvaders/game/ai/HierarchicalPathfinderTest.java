@@ -0,0 +1,101 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the hierarchical pathfinder finds valid routes wherever one exists.
+ */
+public class HierarchicalPathfinderTest {
+    private TileGrid grid;
+    private IntArray path;
+
+    @Before
+    public void setUp() {
+        // A 50x50 map with long walls that force detours through several clusters, plus some scattered blocks.
+        grid = new TileGrid(50, 50, 32, 32);
+        for (int y = 0; y < 45; y++) {
+            grid.block(12, y);
+            grid.block(37, y);
+        }
+        for (int y = 5; y < 50; y++) {
+            grid.block(25, y);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            grid.block(random.nextInt(50), random.nextInt(50));
+        }
+        path = new IntArray();
+    }
+
+    /**
+     * Checks a path only steps between neighbouring walkable tiles and joins start to goal.
+     */
+    private void assertValidPath(int start, int goal) {
+        assertEquals(path.first(), start);
+        assertEquals(path.peek(), goal);
+        for (int i = 1; i < path.size; i++) {
+            int a = path.get(i - 1), b = path.get(i);
+            int dx = Math.abs(grid.tileX(a) - grid.tileX(b));
+            int dy = Math.abs(grid.tileY(a) - grid.tileY(b));
+            assertEquals(dx + dy, 1);
+            assertFalse(grid.isBlocked(b));
+        }
+    }
+
+    @Test
+    public void FindsTrivialPath() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(grid, 10);
+        int tile = grid.index(1, 1);
+        grid.block(1, 1);
+        assertTrue(pathfinder.findPath(tile, tile, path));
+        assertEquals(path.size, 1);
+    }
+
+    @Test
+    public void FindsRoutesWhereverTheyExist() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(grid, 10);
+        FlowField reference = new FlowField(grid, Integer.MAX_VALUE);
+        Random random = new Random(7);
+
+        int found = 0;
+        for (int i = 0; i < 200; i++) {
+            int sx = random.nextInt(50), sy = random.nextInt(50);
+            int gx = random.nextInt(50), gy = random.nextInt(50);
+            if (grid.isBlocked(sx, sy) || grid.isBlocked(gx, gy)) {
+                continue;
+            }
+
+            reference.update(gx, gy);
+            int optimal = reference.getDistance(sx, sy);
+            int start = grid.index(sx, sy), goal = grid.index(gx, gy);
+
+            assertEquals(pathfinder.findPath(start, goal, path), optimal >= 0);
+            if (optimal >= 0) {
+                assertValidPath(start, goal);
+                assertTrue(path.size - 1 >= optimal);
+                found++;
+            }
+        }
+        assertTrue(found > 0);
+    }
+
+    @Test
+    public void FailsWhenSealedOff() {
+        TileGrid sealed = new TileGrid(20, 20, 32, 32);
+        for (int i = 0; i < 20; i++) {
+            sealed.block(10, i);
+        }
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(sealed, 10);
+        assertFalse(pathfinder.findPath(sealed.index(0, 0), sealed.index(19, 19), path));
+        assertEquals(path.size, 0);
+    }
+}
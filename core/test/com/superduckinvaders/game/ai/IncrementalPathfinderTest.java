@@ -0,0 +1,167 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the incremental pathfinder's repaired routes are as good as fresh ones.
+ */
+public class IncrementalPathfinderTest {
+    private TileGrid grid;
+    private IntArray path;
+    private FlowField reference;
+
+    @Before
+    public void setUp() {
+        grid = new TileGrid(40, 40, 32, 32);
+        for (int y = 0; y < 35; y++) {
+            grid.block(20, y);
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < 150; i++) {
+            grid.block(random.nextInt(40), random.nextInt(40));
+        }
+        path = new IntArray();
+        reference = new FlowField(grid, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks a path only steps between neighbouring walkable tiles and joins start to goal.
+     */
+    private void assertValidPath(int start, int goal) {
+        assertEquals(path.first(), start);
+        assertEquals(path.peek(), goal);
+        for (int i = 1; i < path.size; i++) {
+            int a = path.get(i - 1), b = path.get(i);
+            assertEquals(Math.abs(grid.tileX(a) - grid.tileX(b)) + Math.abs(grid.tileY(a) - grid.tileY(b)), 1);
+            assertFalse(grid.isBlocked(b));
+        }
+    }
+
+    private int optimal(int start, int goal) {
+        reference.update(grid.tileX(goal), grid.tileY(goal));
+        return reference.getDistance(grid.tileX(start), grid.tileY(start));
+    }
+
+    /**
+     * Moves a tile one step in a random walkable direction.
+     */
+    private int wander(int tile, Random random) {
+        int[][] directions = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+        int[] direction = directions[random.nextInt(4)];
+        int x = grid.tileX(tile) + direction[0], y = grid.tileY(tile) + direction[1];
+        return grid.isBlocked(x, y) ? tile : grid.index(x, y);
+    }
+
+    private int randomOpenTile(Random random) {
+        while (true) {
+            int x = random.nextInt(40), y = random.nextInt(40);
+            if (!grid.isBlocked(x, y)) {
+                return grid.index(x, y);
+            }
+        }
+    }
+
+    @Test
+    public void RepairsRouteAsGoalMoves() {
+        IncrementalPathfinder pathfinder = new IncrementalPathfinder(grid);
+        Random random = new Random(5);
+        int start = randomOpenTile(random), goal = randomOpenTile(random);
+
+        for (int i = 0; i < 200; i++) {
+            goal = wander(goal, random);
+            int best = optimal(start, goal);
+            assertEquals(pathfinder.findPath(start, goal, path), best >= 0);
+            if (best >= 0) {
+                assertValidPath(start, goal);
+                // The mob hasn't moved, so the route is rooted on its tile and must be the shortest.
+                assertEquals(path.size - 1, best);
+            }
+        }
+    }
+
+    @Test
+    public void ResetSearchServesAnotherMob() {
+        IncrementalPathfinder pathfinder = new IncrementalPathfinder(grid);
+        Random random = new Random(7);
+        int goal = randomOpenTile(random);
+        pathfinder.findPath(randomOpenTile(random), goal, path);
+
+        // Lent to a mob elsewhere, it must search from that mob rather than repair the last one's route.
+        pathfinder.reset();
+        int start = randomOpenTile(random);
+        int best = optimal(start, goal);
+        assertEquals(pathfinder.findPath(start, goal, path), best >= 0);
+        if (best >= 0) {
+            assertValidPath(start, goal);
+            assertEquals(path.size - 1, best);
+        }
+    }
+
+    @Test
+    public void FollowsRouteAsBothMove() {
+        IncrementalPathfinder pathfinder = new IncrementalPathfinder(grid);
+        Random random = new Random(6);
+        int start = grid.index(2, 2), goal = grid.index(37, 2);
+
+        for (int i = 0; i < 150 && start != goal; i++) {
+            assertTrue(pathfinder.findPath(start, goal, path));
+            assertValidPath(start, goal);
+
+            start = path.get(1);
+            if (i % 2 == 0) {
+                goal = wander(goal, random);
+            }
+        }
+        assertEquals(start, goal);
+    }
+
+    @Test
+    public void RepairIsCheaperThanStartingAgain() {
+        IncrementalPathfinder pathfinder = new IncrementalPathfinder(grid);
+        int start = grid.index(2, 2), goal = grid.index(37, 2);
+        pathfinder.findPath(start, goal, path);
+        int fresh = pathfinder.getExpansions();
+
+        pathfinder.findPath(start, grid.index(37, 3), path);
+        assertTrue(pathfinder.getExpansions() < fresh);
+    }
+
+    @Test
+    public void RepairsRouteAroundNewWall() {
+        IncrementalPathfinder pathfinder = new IncrementalPathfinder(grid);
+        int start = grid.index(2, 2), goal = grid.index(37, 2);
+        assertTrue(pathfinder.findPath(start, goal, path));
+
+        int blocked = path.get(path.size / 2);
+        grid.block(grid.tileX(blocked), grid.tileY(blocked));
+        pathfinder.tileChanged(blocked);
+
+        boolean reachable = optimal(start, goal) >= 0;
+        assertEquals(pathfinder.findPath(start, goal, path), reachable);
+        if (reachable) {
+            assertValidPath(start, goal);
+            assertEquals(path.size - 1, optimal(start, goal));
+        }
+    }
+
+    @Test
+    public void FailsWhenSealedOff() {
+        TileGrid sealed = new TileGrid(20, 20, 32, 32);
+        for (int i = 0; i < 20; i++) {
+            sealed.block(10, i);
+        }
+        IncrementalPathfinder pathfinder = new IncrementalPathfinder(sealed);
+        assertFalse(pathfinder.findPath(sealed.index(0, 0), sealed.index(19, 19), path));
+        assertFalse(pathfinder.findPath(sealed.index(0, 0), sealed.index(19, 18), path));
+        assertEquals(path.size, 0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.loaders.resolvers.LocalFileHandleResolver;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.LwjglTestRunner;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compare the jump point search against the other pathfinders on every level map.
+ */
+@RunWith(LwjglTestRunner.class)
+public class PathfinderComparisonTest {
+    private static final String[] MAPS = {
+            "map", "James", "Halifax", "QuietPlace", "bridges", "Library", "HesEast", "Compsci"
+    };
+    private static final int PAIRS = 200;
+
+    private TmxMapLoader loader;
+    private IntArray path;
+
+    @Before
+    public void setUp() {
+        Gdx.gl = Gdx.gl20 = mock(GL20.class);
+        loader = new TmxMapLoader(new LocalFileHandleResolver());
+        path = new IntArray();
+    }
+
+    /**
+     * Builds the same grid Round does, using the first obstacle layout.
+     */
+    private TileGrid loadGrid(String name) {
+        TiledMap map = loader.load("assets/maps/" + name + ".tmx");
+        TiledMapTileLayer collision = (TiledMapTileLayer) map.getLayers().get("Collision");
+        TileGrid grid = new TileGrid(collision.getWidth(), collision.getHeight(),
+                (int) collision.getTileWidth(), (int) collision.getTileHeight());
+        grid.blockLayer(collision);
+        grid.blockLayer((TiledMapTileLayer) map.getLayers().get("Obstacles0"));
+        grid.blockLayer((TiledMapTileLayer) map.getLayers().get("Water"));
+        map.dispose();
+        return grid;
+    }
+
+    @Test
+    public void JumpPointSearchFindsShortestPaths() {
+        for (String name : MAPS) {
+            TileGrid grid = loadGrid(name);
+            JumpPointPathfinder jumpPoint = new JumpPointPathfinder(grid);
+            BestFirstPathfinder bestFirst = new BestFirstPathfinder(grid, PathfindingAI.PATHFINDING_ITERATION_LIMIT);
+            HierarchicalPathfinder hierarchical = new HierarchicalPathfinder(grid, HierarchicalPathfinder.DEFAULT_CLUSTER_SIZE);
+            FlowField reference = new FlowField(grid, Integer.MAX_VALUE);
+            Random random = new Random(name.hashCode());
+
+            long jumpPointTime = 0, bestFirstTime = 0, hierarchicalTime = 0;
+            long jumpPointExpansions = 0, bestFirstExpansions = 0;
+            int pairs = 0, reachable = 0, bestFirstFound = 0;
+
+            while (pairs < PAIRS) {
+                int sx = random.nextInt(grid.getWidth()), sy = random.nextInt(grid.getHeight());
+                int gx = random.nextInt(grid.getWidth()), gy = random.nextInt(grid.getHeight());
+                if (grid.isBlocked(sx, sy) || grid.isBlocked(gx, gy)) {
+                    continue;
+                }
+                pairs++;
+
+                reference.update(gx, gy);
+                int optimal = reference.getDistance(sx, sy);
+                int start = grid.index(sx, sy), goal = grid.index(gx, gy);
+
+                long time = System.nanoTime();
+                boolean found = jumpPoint.findPath(start, goal, path);
+                jumpPointTime += System.nanoTime() - time;
+                jumpPointExpansions += jumpPoint.getExpansions();
+
+                assertEquals(found, optimal >= 0);
+                if (found) {
+                    reachable++;
+                    assertEquals(path.size - 1, optimal);
+                    assertEquals(path.first(), start);
+                    assertEquals(path.peek(), goal);
+                    for (int i = 1; i < path.size; i++) {
+                        int a = path.get(i - 1), b = path.get(i);
+                        assertEquals(Math.abs(grid.tileX(a) - grid.tileX(b)) + Math.abs(grid.tileY(a) - grid.tileY(b)), 1);
+                        assertFalse(grid.isBlocked(b));
+                    }
+                }
+
+                time = System.nanoTime();
+                if (bestFirst.findPath(start, goal, path)) {
+                    bestFirstFound++;
+                }
+                bestFirstTime += System.nanoTime() - time;
+                bestFirstExpansions += bestFirst.getExpansions();
+
+                time = System.nanoTime();
+                hierarchical.findPath(start, goal, path);
+                hierarchicalTime += System.nanoTime() - time;
+            }
+
+            assertTrue(reachable > 0);
+            System.out.println(String.format(
+                    "%-10s %3dx%-3d reachable %3d | jump point %6d expansions %5dus | best first %6d expansions %5dus found %3d | hierarchical %5dus",
+                    name, grid.getWidth(), grid.getHeight(), reachable,
+                    jumpPointExpansions, jumpPointTime / 1000,
+                    bestFirstExpansions, bestFirstTime / 1000, bestFirstFound,
+                    hierarchicalTime / 1000));
+        }
+    }
+}
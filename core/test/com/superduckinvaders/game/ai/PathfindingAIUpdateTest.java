@@ -0,0 +1,136 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.Player;
+import com.superduckinvaders.game.entity.mob.Mob;
+import com.superduckinvaders.game.util.LwjglTestRunner;
+import com.superduckinvaders.game.util.RegionMap;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test a chasing mob's AI makes no garbage once it has warmed up.
+ * <p>
+ * Mocks allocate on every call, so the round and player here are plain subclasses made without running their
+ * constructors, answering only what the AI asks.
+ */
+@RunWith(LwjglTestRunner.class)
+public class PathfindingAIUpdateTest {
+
+    /**
+     * A round over an open grid, with the player standing still.
+     */
+    public static class StubRound extends Round {
+        TileGrid grid;
+        FlowField flowField;
+        RegionMap regionMap;
+        Pathfinder searchPathfinder, longRangePathfinder;
+        ReplanScheduler scheduler;
+        Player player;
+
+        public StubRound() {
+            super(null);
+        }
+
+        @Override public Player getPlayer() { return player; }
+        @Override public TileGrid getNavigationGrid() { return grid; }
+        @Override public FlowField getFlowField() { return flowField; }
+        @Override public RegionMap getRegionMap() { return regionMap; }
+        @Override public Pathfinder getSearchPathfinder() { return searchPathfinder; }
+        @Override public Pathfinder getPathfinder() { return longRangePathfinder; }
+        @Override public PathfindingService getPathfindingService() { return null; }
+        @Override public ReplanScheduler getReplanScheduler() { return scheduler; }
+        @Override public int getTileWidth() { return 32; }
+        @Override public int getTileHeight() { return 32; }
+        @Override public boolean isDormantAt(Vector2 centre) { return false; }
+        @Override public boolean hasLineOfSight(Vector2 pos1, Vector2 pos2) { return false; }
+        @Override public boolean pathIsClear(Vector2 pos, Vector2 size, Vector2 target) { return false; }
+    }
+
+    /**
+     * A player that only has a position and a facing.
+     */
+    public static class StubPlayer extends Player {
+        float centreX, centreY;
+
+        public StubPlayer() {
+            super(null, 0, 0);
+        }
+
+        @Override public float getCentreX() { return centreX; }
+        @Override public float getCentreY() { return centreY; }
+        @Override public TextureSet.FaceDirection getFacing() { return TextureSet.FaceDirection.FRONT; }
+    }
+
+    private StubRound round;
+    private TextureSet textureSet;
+
+    @Before
+    public void setUp() {
+        ObjenesisStd objenesis = new ObjenesisStd();
+        round = objenesis.newInstance(StubRound.class);
+        round.world = new World(new Vector2(), true);
+        round.grid = new TileGrid(20, 20, 32, 32);
+        round.flowField = new FlowField(round.grid, 20);
+        round.regionMap = new RegionMap(round.grid);
+        round.searchPathfinder = new BestFirstPathfinder(round.grid, PathfindingAI.PATHFINDING_ITERATION_LIMIT);
+        round.longRangePathfinder = new HierarchicalPathfinder(round.grid, HierarchicalPathfinder.DEFAULT_CLUSTER_SIZE);
+        round.scheduler = new ReplanScheduler(1000000);
+
+        StubPlayer player = objenesis.newInstance(StubPlayer.class);
+        player.centreX = 16;
+        player.centreY = 16;
+        round.player = player;
+        round.flowField.update(0, 0);
+
+        Texture texture = mock(Texture.class);
+        when(texture.getWidth()).thenReturn(16);
+        when(texture.getHeight()).thenReturn(16);
+        textureSet = new TextureSet(new TextureRegion(texture, 16, 16));
+    }
+
+    @After
+    public void tearDown() {
+        round.world.dispose();
+    }
+
+    @Test
+    public void UpdatesDontAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        // One mob follows the flow field, and the other searches whenever the scheduler lets it.
+        PathfindingAI followingAI = new PathfindingAI(round, 0, true, round.searchPathfinder);
+        PathfindingAI searchingAI = new PathfindingAI(round, 0, false, round.searchPathfinder);
+        Mob following = new Mob(round, 300, 300, 10, textureSet, 5, followingAI);
+        Mob searching = new Mob(round, 500, 200, 10, textureSet, 5, searchingAI);
+
+        for (int pass = 0; pass < 2; pass++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 2000; i++) {
+                followingAI.update(following, 1 / 60f);
+                searchingAI.update(searching, 1 / 60f);
+                round.scheduler.update(1 / 60f);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            // The first round warms up; allow for the measurement itself in the second.
+            if (pass == 1) {
+                assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+            }
+        }
+    }
+}
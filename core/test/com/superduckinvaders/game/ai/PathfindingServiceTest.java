@@ -0,0 +1,102 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test searches run in the background hand back the same results as searching directly.
+ */
+public class PathfindingServiceTest {
+    private TileGrid grid;
+    private PathfindingService service;
+
+    /**
+     * A pathfinder that never finds anything.
+     */
+    private static final Supplier<Pathfinder> NOTHING = () -> (int start, int goal, IntArray path) -> {
+        path.clear();
+        return false;
+    };
+
+    @Before
+    public void setUp() {
+        grid = new TileGrid(20, 20, 32, 32);
+        for (int y = 0; y < 19; y++) {
+            grid.block(10, y);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private void awaitResult(PathRequest request) throws InterruptedException {
+        for (int i = 0; i < 500 && !request.isDone(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(request.isDone());
+    }
+
+    @Test
+    public void FindsSamePathAsDirectSearch() throws InterruptedException {
+        service = new PathfindingService(2, () -> new JumpPointPathfinder(grid), NOTHING);
+        PathRequest request = new PathRequest();
+        int start = grid.index(0, 0), goal = grid.index(19, 0);
+
+        assertTrue(service.submit(request, start, goal));
+        awaitResult(request);
+        assertEquals(request.getState(), PathRequest.State.FOUND);
+        assertFalse(request.isLongRange());
+
+        IntArray expected = new IntArray();
+        new JumpPointPathfinder(grid).findPath(start, goal, expected);
+        assertEquals(request.getPath().size, expected.size);
+
+        request.consume();
+        assertEquals(request.getState(), PathRequest.State.IDLE);
+    }
+
+    @Test
+    public void FallsBackOnLongRangePathfinder() throws InterruptedException {
+        service = new PathfindingService(1, NOTHING, () -> new HierarchicalPathfinder(grid, 10));
+        PathRequest request = new PathRequest();
+
+        service.submit(request, grid.index(0, 0), grid.index(19, 0));
+        awaitResult(request);
+        assertEquals(request.getState(), PathRequest.State.FOUND);
+        assertTrue(request.isLongRange());
+    }
+
+    @Test
+    public void ReportsUnreachableGoals() throws InterruptedException {
+        grid.block(10, 19);
+        service = new PathfindingService(1, () -> new JumpPointPathfinder(grid), NOTHING);
+        PathRequest request = new PathRequest();
+
+        service.submit(request, grid.index(0, 0), grid.index(19, 0));
+        awaitResult(request);
+        assertEquals(request.getState(), PathRequest.State.NOT_FOUND);
+    }
+
+    @Test
+    public void TurnsAwayRequestsWhenStopped() {
+        service = new PathfindingService(1, () -> new JumpPointPathfinder(grid), NOTHING);
+        service.shutdown();
+        PathRequest request = new PathRequest();
+
+        assertFalse(service.submit(request, grid.index(0, 0), grid.index(19, 0)));
+        assertEquals(request.getState(), PathRequest.State.IDLE);
+    }
+}
@@ -0,0 +1,146 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.DuckGame;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.mob.Mob;
+import com.superduckinvaders.game.util.LwjglTestRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the replan scheduler services mobs in priority order and respects its budget.
+ */
+@RunWith(LwjglTestRunner.class)
+public class ReplanSchedulerTest {
+    private static final long UNLIMITED = 1000000;
+
+    private Round round;
+    private List<RecordingAI> replanned;
+
+    /**
+     * An AI that only records when it gets to replan.
+     */
+    private static class RecordingAI extends PathfindingAI {
+        private final List<RecordingAI> replanned;
+
+        RecordingAI(Round round, List<RecordingAI> replanned) {
+            super(round, 0);
+            this.replanned = replanned;
+        }
+
+        @Override
+        void replan(Mob mob) {
+            replanned.add(this);
+        }
+    }
+
+    private RecordingAI createAI() {
+        return new RecordingAI(round, replanned);
+    }
+
+    @Before
+    public void setUp() {
+        round = mock(Round.class);
+        replanned = new ArrayList<RecordingAI>();
+    }
+
+    @Test
+    public void ServicesNearestFirst() {
+        ReplanScheduler scheduler = new ReplanScheduler(UNLIMITED);
+        RecordingAI far = createAI(), near = createAI();
+        scheduler.request(far, mock(Mob.class), 300);
+        scheduler.request(near, mock(Mob.class), 10);
+        scheduler.update(0.1f);
+
+        assertEquals(replanned.size(), 2);
+        assertEquals(replanned.get(0), near);
+        assertEquals(replanned.get(1), far);
+        assertEquals(scheduler.getQueueDepth(), 0);
+    }
+
+    @Test
+    public void ServicesLongestWaitingFirst() {
+        ReplanScheduler scheduler = new ReplanScheduler(UNLIMITED);
+        RecordingAI first = createAI(), second = createAI();
+        scheduler.request(first, mock(Mob.class), 10);
+        scheduler.update(1f);
+
+        // The first mob has just planned, so the second goes ahead of it even though it's further away.
+        scheduler.request(first, mock(Mob.class), 10);
+        scheduler.request(second, mock(Mob.class), 100);
+        scheduler.update(1f);
+        assertEquals(replanned.get(1), second);
+        assertEquals(replanned.get(2), first);
+    }
+
+    @Test
+    public void IgnoresDuplicateRequests() {
+        ReplanScheduler scheduler = new ReplanScheduler(UNLIMITED);
+        RecordingAI ai = createAI();
+        Mob mob = mock(Mob.class);
+        scheduler.request(ai, mob, 10);
+        scheduler.request(ai, mob, 10);
+        assertEquals(scheduler.getQueueDepth(), 1);
+    }
+
+    @Test
+    public void ServicesOneEvenWithNoBudget() {
+        ReplanScheduler scheduler = new ReplanScheduler(0);
+        for (int i = 0; i < 5; i++) {
+            scheduler.request(createAI(), mock(Mob.class), i);
+        }
+        scheduler.update(0.1f);
+        assertEquals(scheduler.getLastServiced(), 1);
+        assertEquals(scheduler.getQueueDepth(), 4);
+    }
+
+    @Test
+    public void SkipsRemovedMobs() {
+        ReplanScheduler scheduler = new ReplanScheduler(UNLIMITED);
+        Mob removed = mock(Mob.class);
+        when(removed.isRemoved()).thenReturn(true);
+        scheduler.request(createAI(), removed, 10);
+        scheduler.update(0.1f);
+        assertEquals(replanned.size(), 0);
+    }
+
+    @Test
+    public void SkipsMobsThatWentDormant() {
+        round.world = new World(new Vector2(), true);
+        Texture texture = mock(Texture.class);
+        when(texture.getWidth()).thenReturn(16);
+        when(texture.getHeight()).thenReturn(16);
+        DuckGame.session.incrementalPathfinding = true;
+        try {
+            ReplanScheduler scheduler = new ReplanScheduler(UNLIMITED);
+            PathfindingAI ai = new PathfindingAI(round, 0);
+            Mob mob = new Mob(round, 100f, 100f, 10, new TextureSet(new TextureRegion(texture, 16, 16)), 5, ai);
+            scheduler.request(ai, mob, 10);
+
+            // Left behind while queued, so it has given back any search and must not borrow another.
+            mob.dematerialise();
+            scheduler.update(0.1f);
+            assertEquals(scheduler.getLastServiced(), 0);
+            ai.replan(mob);
+            verify(round, never()).obtainIncrementalPathfinder();
+        } finally {
+            DuckGame.session.incrementalPathfinding = false;
+            round.world.dispose();
+        }
+    }
+}
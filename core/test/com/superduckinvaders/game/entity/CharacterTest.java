@@ -3,13 +3,19 @@ package com.superduckinvaders.game.entity;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.entity.TheCharacter;
+import com.badlogic.gdx.utils.Array;
 import com.superduckinvaders.game.util.LwjglTestRunner;
+import com.superduckinvaders.game.util.SpatialHash;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -20,6 +26,7 @@ public class CharacterTest {
     private class MyCharacter extends TheCharacter {
         MyCharacter(Round round, int x, int y, int maxHealth) {
             super(round, x, y, maxHealth);
+            this.width = this.height = 16;
         }
 
         @Override
@@ -74,4 +81,31 @@ public class CharacterTest {
         ch.heal(25);
         assertEquals(ch.getCurrentHealth(), ch.getMaximumHealth());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void FindsEnemiesInMeleeRange() {
+        SpatialHash<Entity> index = new SpatialHash<Entity>(320, 320, 64);
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            index.query((Float) args[0], (Float) args[1], (Float) args[2], (Float) args[3], (Array<Entity>) args[4]);
+            return null;
+        }).when(round).findEntities(anyFloat(), anyFloat(), anyFloat(), anyFloat(), any(Array.class));
+
+        MyCharacter attacker = new MyCharacter(round, 10, 10, 50);
+        attacker.categoryBits = PhysicsEntity.MOB_BITS;
+        attacker.enemyBits = PhysicsEntity.PLAYER_BITS;
+        MyCharacter friend = new MyCharacter(round, 30, 10, 50);
+        friend.categoryBits = PhysicsEntity.MOB_BITS;
+        MyCharacter farEnemy = new MyCharacter(round, 50, 10, 50);
+        for (MyCharacter ch : new MyCharacter[]{attacker, friend, farEnemy}) {
+            index.insert(ch, ch.getX(), ch.getY(), ch.getX() + 16, ch.getY() + 16);
+        }
+        // Its box starts 32 pixels from the attacker's centre, just out of reach.
+        assertNull(attacker.findEnemyInRange());
+
+        MyCharacter enemy = new MyCharacter(round, 40, 10, 50);
+        index.insert(enemy, 40, 10, 56, 26);
+        assertEquals(attacker.findEnemyInRange(), enemy);
+    }
 }
@@ -0,0 +1,148 @@
+package com.superduckinvaders.game.entity;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ai.DummyAI;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.mob.Mob;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.LwjglTestRunner;
+import com.superduckinvaders.game.util.SpatialHash;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test projectiles without bodies hit what is in their way.
+ */
+@RunWith(LwjglTestRunner.class)
+public class ProjectileSystemTest {
+    private Round round;
+    private TileGrid grid;
+    private ProjectileSystem projectiles;
+    private PhysicsEntity shooter;
+    private Mob mob;
+    private SpatialHash<Entity> index;
+
+    @Before
+    public void setUp() {
+        round = mock(Round.class);
+        round.world = new World(new Vector2(), true);
+
+        Texture texture = mock(Texture.class);
+        when(texture.getWidth()).thenReturn(16);
+        when(texture.getHeight()).thenReturn(16);
+
+        // A 10x10 map of 32 pixel tiles with a wall down x = 7.
+        grid = new TileGrid(10, 10, 32, 32);
+        for (int y = 0; y < 10; y++) {
+            grid.block(7, y);
+        }
+        projectiles = new ProjectileSystem(round, new LineOfSight(grid), new TextureRegion(texture, 4, 4));
+
+        shooter = mock(PhysicsEntity.class);
+        shooter.categoryBits = PhysicsEntity.PLAYER_BITS;
+        mob = new Mob(round, 100, 100, 10, new TextureSet(new TextureRegion(texture, 16, 16)), 5, new DummyAI(round));
+        index = new SpatialHash<Entity>(320, 320, 64);
+        index.insert(mob, 100, 100, 116, 116);
+    }
+
+    @After
+    public void tearDown() {
+        round.world.dispose();
+    }
+
+    @Test
+    public void HitsCharactersInTheWay() {
+        projectiles.fire(20, 106, 600, 0, 3, shooter);
+        projectiles.update(0.1f, index);
+        assertEquals(projectiles.getCount(), 1);
+        assertEquals(mob.getCurrentHealth(), 10);
+
+        // Far enough in one update to pass right through the mob without a swept test.
+        projectiles.update(0.1f, index);
+        assertEquals(projectiles.getCount(), 0);
+        assertEquals(mob.getCurrentHealth(), 7);
+    }
+
+    @Test
+    public void WallsStopProjectiles() {
+        projectiles.fire(180, 106, 600, 0, 3, shooter);
+        projectiles.update(0.1f, index);
+        assertEquals(projectiles.getCount(), 0);
+
+        projectiles.fire(260, 106, -600, 0, 3, shooter);
+        projectiles.update(1f, index);
+        assertEquals(projectiles.getCount(), 0);
+        assertEquals(mob.getCurrentHealth(), 10);
+    }
+
+    @Test
+    public void OwnSideIsNotHit() {
+        shooter.categoryBits = PhysicsEntity.MOB_BITS;
+        projectiles.fire(20, 106, 100, 0, 3, shooter);
+        projectiles.update(1f, index);
+        assertEquals(projectiles.getCount(), 1);
+        assertEquals(mob.getCurrentHealth(), 10);
+    }
+
+    @Test
+    public void MeleeDeflectsProjectiles() {
+        // Coming at the mob from its right, and hit back the other way.
+        mob.enemyBits = PhysicsEntity.PLAYER_BITS | PhysicsEntity.PROJECTILE_BITS;
+        projectiles.fire(130, 106, -100, 0, 3, shooter);
+        projectiles.deflect(mob, 1, 0, 30);
+        assertEquals(projectiles.getOwner(0), mob);
+
+        projectiles.update(0.05f, index);
+        assertEquals(mob.getCurrentHealth(), 10);
+        assertEquals(projectiles.getX(0), 142f, 0.01f);
+    }
+
+    @Test
+    public void OnlyDeflectsInFront() {
+        mob.enemyBits = PhysicsEntity.PLAYER_BITS | PhysicsEntity.PROJECTILE_BITS;
+        projectiles.fire(130, 106, -100, 0, 3, shooter);
+        projectiles.deflect(mob, -1, 0, 30);
+        assertEquals(projectiles.getOwner(0), shooter);
+    }
+
+    @Test
+    public void MobsDontDeflectPlayerProjectiles() {
+        // Mobs' enemies don't include projectiles, so the player's shot carries on and hits.
+        projectiles.fire(130, 106, -100, 0, 3, shooter);
+        projectiles.deflect(mob, 1, 0, 30);
+        assertEquals(projectiles.getOwner(0), shooter);
+
+        projectiles.update(0.2f, index);
+        assertEquals(projectiles.getCount(), 0);
+        assertEquals(mob.getCurrentHealth(), 7);
+    }
+
+    @Test
+    public void OnlyDeflectsEnemyProjectiles() {
+        mob.enemyBits = PhysicsEntity.PLAYER_BITS | PhysicsEntity.PROJECTILE_BITS;
+        PhysicsEntity friend = mock(PhysicsEntity.class);
+        friend.categoryBits = PhysicsEntity.MOB_BITS;
+        projectiles.fire(130, 106, -100, 0, 3, friend);
+        projectiles.deflect(mob, 1, 0, 30);
+        assertEquals(projectiles.getOwner(0), friend);
+    }
+
+    @Test
+    public void SweepFindsFirstTouch() {
+        assertEquals(ProjectileSystem.sweep(0, 0, 10, 0, 5, -1, 6, 1), 0.5f, 0.001f);
+        assertEquals(ProjectileSystem.sweep(0, 0, 10, 10, 5, -1, 6, 1), LineOfSight.NO_HIT, 0);
+        assertEquals(ProjectileSystem.sweep(0, 0, 10, 0, 20, -1, 30, 1), LineOfSight.NO_HIT, 0);
+        assertEquals(ProjectileSystem.sweep(0, 0, 10, 0, -1, -1, 1, 1), 0f, 0);
+    }
+}
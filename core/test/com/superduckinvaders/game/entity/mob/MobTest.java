@@ -0,0 +1,111 @@
+package com.superduckinvaders.game.entity.mob;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.DuckGame;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ai.DummyAI;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.LwjglTestRunner;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test mobs can give up their bodies and get them back.
+ */
+@RunWith(LwjglTestRunner.class)
+public class MobTest {
+    private Round round;
+    private TextureSet textureSet;
+
+    @Before
+    public void setUp() {
+        round = mock(Round.class);
+        round.world = new World(new Vector2(), true);
+        Texture texture = mock(Texture.class);
+        when(texture.getWidth()).thenReturn(16);
+        when(texture.getHeight()).thenReturn(16);
+        textureSet = new TextureSet(new TextureRegion(texture, 16, 16));
+    }
+
+    @After
+    public void tearDown() {
+        round.world.dispose();
+    }
+
+    @Test
+    public void DistantMobsStartDormant() {
+        when(round.isDormantAt(any(Vector2.class))).thenReturn(true);
+        Mob mob = new Mob(round, 100f, 200f, 10, textureSet, 5, new DummyAI(round));
+        assertTrue(mob.isDormant());
+        assertEquals(round.world.getBodyCount(), 0);
+        assertEquals(mob.getPosition(), new Vector2(100f, 200f));
+        assertEquals(mob.getVelocity(), new Vector2());
+    }
+
+    @Test
+    public void KeepsPlaceAndHealthWhileDormant() {
+        Mob mob = new Mob(round, 100f, 200f, 10, textureSet, 5, new DummyAI(round));
+        assertFalse(mob.isDormant());
+        mob.damage(3);
+        Vector2 centre = mob.getCentre();
+
+        mob.dematerialise();
+        assertTrue(mob.isDormant());
+        assertEquals(round.world.getBodyCount(), 0);
+        assertEquals(mob.getCentre(), centre);
+        assertEquals(mob.getCurrentHealth(), 7);
+
+        mob.materialise();
+        assertFalse(mob.isDormant());
+        assertEquals(round.world.getBodyCount(), 1);
+        assertEquals(mob.getCentre().dst(centre), 0f, 0.01f);
+        // Just the bounding box: melee targets are found without a sensor.
+        assertEquals(mob.body.getFixtureList().size, 1);
+        assertEquals(mob.body.getLinearDamping(), 20f, 0f);
+    }
+
+    @Test
+    public void KinematicMobsSlideAlongWalls() {
+        // A wall down the column of tiles from x = 128 to 160.
+        TileGrid grid = new TileGrid(10, 10, 32, 32);
+        for (int y = 0; y < 10; y++) {
+            grid.block(4, y);
+        }
+        when(round.getNavigationGrid()).thenReturn(grid);
+        DuckGame.session.kinematicMobs = true;
+        try {
+            Mob mob = new Mob(round, 100f, 100f, 10, textureSet, 5, new DummyAI(round));
+            assertTrue(mob.isKinematic());
+            assertEquals(mob.body.getType(), BodyDef.BodyType.KinematicBody);
+
+            // Knocked hard towards the wall and up, it stops at the wall but keeps moving up.
+            mob.setVelocity(new Vector2(100f, 10f));
+            mob.update(1 / 60f);
+            round.world.step(1 / 60f, 6, 2);
+            Vector2 centre = mob.getCentre();
+            assertEquals(centre.x, 128f - 8f + LineOfSight.EDGE_MARGIN, 0.05f);
+            assertTrue(centre.y > 108f);
+
+            mob.stopMoving();
+            round.world.step(1 / 60f, 6, 2);
+            assertEquals(mob.getCentre().dst(centre), 0f, 0.01f);
+        } finally {
+            DuckGame.session.kinematicMobs = false;
+        }
+    }
+}
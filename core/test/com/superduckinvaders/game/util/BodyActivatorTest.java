@@ -0,0 +1,119 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test distant bodies are put to sleep and woken again.
+ */
+@RunWith(LwjglTestRunner.class)
+public class BodyActivatorTest {
+    private World world;
+    private BodyActivator activator;
+
+    /**
+     * Adds a dynamic body centred on a point given in pixels.
+     */
+    private Body addBody(float x, float y, short category) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.DynamicBody;
+        bodyDef.position.set(x * PhysicsEntity.METRES_PER_PIXEL, y * PhysicsEntity.METRES_PER_PIXEL);
+        Body body = world.createBody(bodyDef);
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(0.5f, 0.5f);
+        FixtureDef fixtureDef = new FixtureDef();
+        fixtureDef.shape = shape;
+        fixtureDef.filter.categoryBits = category;
+        body.createFixture(fixtureDef);
+        shape.dispose();
+        return body;
+    }
+
+    @Before
+    public void setUp() {
+        world = new World(new Vector2(), true);
+        activator = new BodyActivator(2048, 2048, 256, 400, 500);
+    }
+
+    @After
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Test
+    public void SleepsOnlyBeyondSleepRadius() {
+        Body near = addBody(300, 0, PhysicsEntity.MOB_BITS);
+        Body between = addBody(450, 0, PhysicsEntity.MOB_BITS);
+        Body far = addBody(1000, 0, PhysicsEntity.MOB_BITS);
+        activator.update(world, 0, 0);
+        assertTrue(near.isActive());
+        assertTrue(between.isActive());
+        assertFalse(far.isActive());
+        assertEquals(activator.getActiveCount(), 2);
+        assertEquals(activator.getSleepingCount(), 1);
+    }
+
+    @Test
+    public void WakesOnlyInsideWakeRadius() {
+        Body mob = addBody(1000, 0, PhysicsEntity.MOB_BITS);
+        activator.update(world, 0, 0);
+        assertFalse(mob.isActive());
+
+        activator.update(world, 550, 0);
+        assertFalse(mob.isActive());
+        activator.update(world, 700, 0);
+        assertTrue(mob.isActive());
+
+        // Backing off into the gap between the radii keeps it awake.
+        activator.update(world, 550, 0);
+        assertTrue(mob.isActive());
+    }
+
+    @Test
+    public void ProjectilesWakeTheirRegion() {
+        Body mob = addBody(1000, 1000, PhysicsEntity.MOB_BITS);
+        Body other = addBody(1800, 1800, PhysicsEntity.MOB_BITS);
+        activator.update(world, 0, 0);
+        assertFalse(mob.isActive());
+
+        Body projectile = addBody(1100, 1000, PhysicsEntity.PROJECTILE_BITS);
+        activator.update(world, 0, 0);
+        assertTrue(mob.isActive());
+        assertFalse(other.isActive());
+        assertTrue(projectile.isActive());
+
+        world.destroyBody(projectile);
+        activator.update(world, 0, 0);
+        assertFalse(mob.isActive());
+    }
+
+    @Test
+    public void NeverSleepsPlayerOrStaticBodies() {
+        Body player = addBody(1500, 0, PhysicsEntity.PLAYER_BITS);
+        BodyDef wallDef = new BodyDef();
+        wallDef.position.set(1500 * PhysicsEntity.METRES_PER_PIXEL, 0);
+        Body wall = world.createBody(wallDef);
+        activator.update(world, 0, 0);
+        assertTrue(player.isActive());
+        assertTrue(wall.isActive());
+        assertEquals(activator.getActiveCount(), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RejectsSleepRadiusInsideWakeRadius() {
+        activator.setRadii(500, 400);
+    }
+}
@@ -0,0 +1,108 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test reused Box2D queries give the same answers every time and don't allocate.
+ */
+@RunWith(LwjglTestRunner.class)
+public class CollisionTest {
+    private static final short WALL = 0x1, MOB = 0x4;
+
+    private World world;
+
+    private void addBox(float x, float y, short category) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.position.set(x, y);
+        Body body = world.createBody(bodyDef);
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(0.5f, 0.5f);
+        FixtureDef fixtureDef = new FixtureDef();
+        fixtureDef.shape = shape;
+        fixtureDef.filter.categoryBits = category;
+        body.createFixture(fixtureDef);
+        shape.dispose();
+    }
+
+    @Before
+    public void setUp() {
+        world = new World(new Vector2(), true);
+        addBox(2, 2, WALL);
+        addBox(6, 2, MOB);
+    }
+
+    @After
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Test
+    public void ReusedQueriesMatchMask() {
+        Collision.QueryPoint point = new Collision.QueryPoint(world);
+        assertTrue(point.set(2, 2, WALL).query());
+        assertFalse(point.set(2, 2, MOB).query());
+        assertFalse(point.set(4, 2, WALL).query());
+        assertTrue(point.set(6.2f, 2.2f, MOB).query());
+
+        Collision.QueryArea area = new Collision.QueryArea(world);
+        assertTrue(area.set(5, 1, 2, 2, MOB).query());
+        assertFalse(area.set(5, 1, 2, 2, WALL).query());
+        assertFalse(area.set(3, 3, 1, 1, (short) (WALL | MOB)).query());
+    }
+
+    @Test
+    public void ReusedRayCastResets() {
+        RayCast.RayCastCB callback = new RayCast.RayCastCB(WALL);
+        Vector2 start = new Vector2(0, 2), end = new Vector2(4, 2);
+        world.rayCast(callback.reset(WALL), start, end);
+        assertFalse(callback.clear);
+
+        start.set(0, 4);
+        end.set(8, 4);
+        world.rayCast(callback.reset(WALL), start, end);
+        assertTrue(callback.clear);
+        assertEquals(callback.fraction, 1f, 0f);
+    }
+
+    @Test
+    public void QueriesDontAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Collision.QueryPoint point = new Collision.QueryPoint(world);
+        Collision.QueryArea area = new Collision.QueryArea(world);
+        RayCast.RayCastCB callback = new RayCast.RayCastCB(WALL);
+        Vector2 start = new Vector2(0, 2), end = new Vector2(8, 2);
+
+        int hits = 0;
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10000; i++) {
+                hits += point.set(2, 2, WALL).query() ? 1 : 0;
+                hits += area.set(5, 1, 2, 2, MOB).query() ? 1 : 0;
+                world.rayCast(callback.reset(WALL), start, end);
+                hits += callback.clear ? 0 : 1;
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            // The first round warms up; allow for the measurement itself in the second.
+            if (round == 1) {
+                assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+            }
+        }
+        assertEquals(hits, 60000);
+    }
+}
@@ -0,0 +1,76 @@
+package com.superduckinvaders.game.util;
+
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test handlers are found by the categories of the two fixtures.
+ */
+public class ContactTableTest {
+
+    @Test
+    public void CategoriesAreUnique() {
+        short[] categories = {PhysicsEntity.WORLD_BITS, PhysicsEntity.PLAYER_BITS, PhysicsEntity.MOB_BITS,
+                PhysicsEntity.PROJECTILE_BITS, PhysicsEntity.ITEM_BITS, PhysicsEntity.WATER_BITS};
+        short seen = 0;
+        for (short category : categories) {
+            assertEquals(Integer.bitCount(category), 1);
+            assertEquals(seen & category, 0);
+            seen |= category;
+        }
+    }
+
+    @Test
+    public void CategoryIndexIsBitPosition() {
+        assertEquals(ContactTable.categoryIndex(PhysicsEntity.WORLD_BITS), 0);
+        assertEquals(ContactTable.categoryIndex(PhysicsEntity.WATER_BITS), 5);
+        assertEquals(ContactTable.categoryIndex((short) 0x8000), 15);
+        assertEquals(ContactTable.categoryIndex((short) 0), -1);
+    }
+
+    @Test
+    public void DispatchesByPair() {
+        List<String> events = new ArrayList<String>();
+        ContactTable table = new ContactTable();
+        table.register(ContactTable.Event.BEGIN_COLLISION, PhysicsEntity.PROJECTILE_BITS,
+                (short) (PhysicsEntity.PLAYER_BITS | PhysicsEntity.MOB_BITS), (entity, other) -> events.add("hit"));
+        int projectile = ContactTable.categoryIndex(PhysicsEntity.PROJECTILE_BITS);
+
+        table.dispatch(ContactTable.Event.BEGIN_COLLISION, projectile,
+                ContactTable.categoryIndex(PhysicsEntity.MOB_BITS), null, null);
+        table.dispatch(ContactTable.Event.BEGIN_COLLISION, projectile,
+                ContactTable.categoryIndex(PhysicsEntity.PLAYER_BITS), null, null);
+        assertEquals(events.size(), 2);
+
+        // Nothing registered for the other way round, other pairs, other events or no category.
+        table.dispatch(ContactTable.Event.BEGIN_COLLISION, ContactTable.categoryIndex(PhysicsEntity.MOB_BITS),
+                projectile, null, null);
+        table.dispatch(ContactTable.Event.BEGIN_COLLISION, projectile,
+                ContactTable.categoryIndex(PhysicsEntity.WORLD_BITS), null, null);
+        table.dispatch(ContactTable.Event.END_COLLISION, projectile,
+                ContactTable.categoryIndex(PhysicsEntity.MOB_BITS), null, null);
+        table.dispatch(ContactTable.Event.BEGIN_COLLISION, projectile, -1, null, null);
+        assertEquals(events.size(), 2);
+    }
+
+    @Test
+    public void LaterRegistrationsReplaceEarlierOnes() {
+        List<String> events = new ArrayList<String>();
+        ContactTable table = new ContactTable();
+        table.register(ContactTable.Event.BEGIN_SENSOR, PhysicsEntity.ITEM_BITS, PhysicsEntity.ALL_BITS,
+                (entity, other) -> events.add("any"));
+        table.register(ContactTable.Event.BEGIN_SENSOR, PhysicsEntity.ITEM_BITS, PhysicsEntity.PLAYER_BITS,
+                (entity, other) -> events.add("player"));
+        int item = ContactTable.categoryIndex(PhysicsEntity.ITEM_BITS);
+
+        table.dispatch(ContactTable.Event.BEGIN_SENSOR, item, ContactTable.categoryIndex(PhysicsEntity.PLAYER_BITS), null, null);
+        table.dispatch(ContactTable.Event.BEGIN_SENSOR, item, ContactTable.categoryIndex(PhysicsEntity.WORLD_BITS), null, null);
+        assertEquals(events.get(0), "player");
+        assertEquals(events.get(1), "any");
+    }
+}
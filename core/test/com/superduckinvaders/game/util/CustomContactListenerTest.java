@@ -0,0 +1,124 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test contacts are queued during the step and handed out afterwards.
+ */
+@RunWith(LwjglTestRunner.class)
+public class CustomContactListenerTest {
+    private Round round;
+    private CustomContactListener listener;
+    private List<String> events;
+
+    private class Box extends PhysicsEntity {
+        private final String name;
+        private boolean destroyOnHit = false;
+
+        Box(String name, float x, float y, BodyDef.BodyType type, boolean isSensor) {
+            super(round, x, y);
+            this.name = name;
+            this.width = this.height = 16;
+            createBody(type, WORLD_BITS, ALL_BITS, NO_GROUP, isSensor);
+        }
+
+        void hit(Box other) {
+            events.add(name + " hit " + other.name);
+            if (destroyOnHit && body != null) {
+                dispose();
+                body = null;
+            }
+        }
+
+        @Override
+        public void render(SpriteBatch spriteBatch) {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        round = mock(Round.class);
+        round.world = new World(new Vector2(), true);
+        ContactTable table = new ContactTable();
+        table.register(ContactTable.Event.BEGIN_COLLISION, PhysicsEntity.WORLD_BITS, PhysicsEntity.WORLD_BITS,
+                (box, other) -> ((Box) box).hit((Box) other));
+        table.register(ContactTable.Event.END_COLLISION, PhysicsEntity.WORLD_BITS, PhysicsEntity.WORLD_BITS,
+                (box, other) -> events.add(((Box) box).name + " left " + ((Box) other).name));
+        table.register(ContactTable.Event.BEGIN_SENSOR, PhysicsEntity.WORLD_BITS, PhysicsEntity.WORLD_BITS,
+                (box, other) -> events.add(((Box) box).name + " senses " + ((Box) other).name));
+        listener = new CustomContactListener(table);
+        round.world.setContactListener(listener);
+        events = new ArrayList<String>();
+    }
+
+    @After
+    public void tearDown() {
+        round.world.dispose();
+    }
+
+    @Test
+    public void DispatchesAfterStep() {
+        new Box("a", 0, 0, BodyDef.BodyType.DynamicBody, false);
+        new Box("b", 8, 0, BodyDef.BodyType.StaticBody, false);
+        round.world.step(1 / 60f, 6, 2);
+        assertTrue(events.isEmpty());
+        assertEquals(listener.getPendingCount(), 1);
+
+        listener.dispatch();
+        assertEquals(events.size(), 2);
+        assertTrue(events.contains("a hit b"));
+        assertTrue(events.contains("b hit a"));
+        assertEquals(listener.getPendingCount(), 0);
+    }
+
+    @Test
+    public void SensorsOnlyNotifyTheSensor() {
+        new Box("sensor", 0, 0, BodyDef.BodyType.DynamicBody, true);
+        new Box("wall", 8, 0, BodyDef.BodyType.StaticBody, false);
+        round.world.step(1 / 60f, 6, 2);
+        listener.dispatch();
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0), "sensor senses wall");
+    }
+
+    @Test
+    public void HandlersCanDestroyBodies() {
+        Box a = new Box("a", 0, 0, BodyDef.BodyType.DynamicBody, false);
+        new Box("b", 8, 0, BodyDef.BodyType.StaticBody, false);
+        a.destroyOnHit = true;
+        round.world.step(1 / 60f, 6, 2);
+        listener.dispatch();
+        // Destroying the body ends its contact, which is handled in the same dispatch.
+        assertTrue(events.contains("b left a"));
+        assertEquals(round.world.getBodyCount(), 1);
+    }
+
+    @Test
+    public void QueueGrowsPastCapacity() {
+        for (int i = 0; i < 300; i++) {
+            new Box("a" + i, i * 40, 0, BodyDef.BodyType.DynamicBody, false);
+            new Box("b" + i, i * 40 + 8, 0, BodyDef.BodyType.StaticBody, false);
+        }
+        round.world.step(1 / 60f, 6, 2);
+        assertEquals(listener.getPendingCount(), 300);
+        listener.dispatch();
+        assertEquals(events.size(), 600);
+        assertTrue(events.contains("a299 hit b299"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.superduckinvaders.game.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test frame times are split into fixed steps and long frames are capped.
+ */
+public class FixedTimestepTest {
+    private static final float STEP = 0.25f;
+
+    @Test
+    public void CarriesRemainderOver() {
+        FixedTimestep timestep = new FixedTimestep(STEP, 5);
+        assertEquals(timestep.advance(0.125f), 0);
+        assertEquals(timestep.getAlpha(), 0.5f, 1e-6f);
+        assertEquals(timestep.advance(0.25f), 1);
+        assertEquals(timestep.getAlpha(), 0.5f, 1e-6f);
+        assertEquals(timestep.advance(0.125f), 1);
+        assertEquals(timestep.getAlpha(), 0f, 1e-6f);
+    }
+
+    @Test
+    public void CapsStepsAfterHitch() {
+        FixedTimestep timestep = new FixedTimestep(STEP, 3);
+        assertEquals(timestep.advance(10.125f), 3);
+        assertEquals(timestep.getAlpha(), 0.5f, 1e-6f);
+        assertEquals(timestep.getDroppedTime(), 9.25f, 1e-6f);
+        // Nothing is owed afterwards, so the next frame runs normally.
+        assertEquals(timestep.advance(0.125f), 1);
+    }
+
+    @Test
+    public void IgnoresNegativeDelta() {
+        FixedTimestep timestep = new FixedTimestep(STEP, 3);
+        assertEquals(timestep.advance(-1f), 0);
+        assertEquals(timestep.getAlpha(), 0f, 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RejectsZeroMaxSteps() {
+        new FixedTimestep(STEP, 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.superduckinvaders.game.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test line of sight over the tile grid.
+ */
+public class LineOfSightTest {
+    private TileGrid grid;
+    private LineOfSight lineOfSight;
+
+    @Before
+    public void setUp() {
+        // A 10x10 map of 32 pixel tiles with a single wall tile at (5, 5).
+        grid = new TileGrid(10, 10, 32, 32);
+        grid.block(5, 5);
+        lineOfSight = new LineOfSight(grid);
+    }
+
+    @Test
+    public void SeesAcrossOpenTiles() {
+        assertTrue(lineOfSight.isClear(16, 16, 300, 100));
+        assertTrue(lineOfSight.isClear(300, 100, 16, 16));
+        assertTrue(lineOfSight.isClear(50, 50, 50, 50));
+    }
+
+    @Test
+    public void WallsBlockSight() {
+        assertFalse(lineOfSight.isClear(16, 176, 300, 176));
+        assertFalse(lineOfSight.isClear(176, 16, 176, 300));
+        assertFalse(lineOfSight.isClear(100, 100, 250, 250));
+        assertFalse(lineOfSight.isClear(176, 176, 16, 16));
+    }
+
+    @Test
+    public void MapEdgeBlocksSight() {
+        assertFalse(lineOfSight.isClear(16, 16, -16, 16));
+        assertFalse(lineOfSight.isClear(16, 16, 16, 400));
+    }
+
+    @Test
+    public void CannotSlipBetweenDiagonalWalls() {
+        grid.block(2, 3);
+        grid.block(3, 2);
+        assertFalse(lineOfSight.isClear(80, 80, 112, 112));
+    }
+
+    @Test
+    public void MatchesSampledRay() {
+        // Walk random rays in tiny steps and check nothing the DDA calls clear passes through a wall.
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            float x0 = random.nextFloat() * 320, y0 = random.nextFloat() * 320;
+            float x1 = random.nextFloat() * 320, y1 = random.nextFloat() * 320;
+
+            boolean sampledClear = true;
+            for (int step = 0; step <= 1000; step++) {
+                float t = step / 1000f;
+                if (grid.isBlockedAt(x0 + (x1 - x0) * t, y0 + (y1 - y0) * t)) {
+                    sampledClear = false;
+                }
+            }
+            if (!sampledClear) {
+                assertFalse(lineOfSight.isClear(x0, y0, x1, y1));
+            }
+        }
+    }
+
+    @Test
+    public void BoxSweepHitsWallBetweenCorners() {
+        // A box wider than the wall passes either side of it with its corners, but still hits it.
+        assertTrue(lineOfSight.isClear(176 - 40, 100, 176 - 40, 250));
+        assertTrue(lineOfSight.isClear(176 + 40, 100, 176 + 40, 250));
+        assertFalse(lineOfSight.isBoxClear(176, 100, 80, 20, 176, 250));
+        assertTrue(lineOfSight.isBoxClear(100, 100, 20, 20, 100, 250));
+    }
+
+    @Test
+    public void BoxFlushAgainstWallIsClear() {
+        // A 32 pixel box sitting right next to the wall, moving away from it.
+        assertTrue(lineOfSight.isBoxClear(144, 176, 32, 32, 48, 176));
+    }
+
+    @Test
+    public void ResolvesBatches() {
+        float[] segments = {
+                16, 16, 300, 100,
+                16, 176, 300, 176,
+                16, 16, 16, 300
+        };
+        boolean[] results = new boolean[3];
+        assertEquals(lineOfSight.areClear(segments, 3, results), 2);
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertTrue(results[2]);
+    }
+
+    @Test
+    public void CastRayFindsWallEdge() {
+        assertEquals(lineOfSight.castRay(16, 176, 300, 176), (160 - 16) / 284f, 0.0001f);
+        assertEquals(lineOfSight.castRay(176, 176, 16, 16), 0f, 0);
+        assertEquals(lineOfSight.castRay(16, 16, 300, 100), LineOfSight.NO_HIT, 0);
+    }
+}
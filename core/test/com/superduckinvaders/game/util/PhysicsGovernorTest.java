@@ -0,0 +1,76 @@
+package com.superduckinvaders.game.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the solver iterations follow the cost of each step.
+ */
+@RunWith(LwjglTestRunner.class)
+public class PhysicsGovernorTest {
+    private static final long MILLIS = 1000000;
+
+    @Test
+    public void StartsAtMostIterations() {
+        PhysicsGovernor governor = new PhysicsGovernor();
+        assertEquals(governor.getVelocityIterations(), PhysicsGovernor.DEFAULT_VELOCITY_ITERATIONS);
+        assertEquals(governor.getPositionIterations(), PhysicsGovernor.DEFAULT_POSITION_ITERATIONS);
+    }
+
+    @Test
+    public void SlowStepsLowerQualityDownToTheBounds() {
+        PhysicsGovernor governor = new PhysicsGovernor(2, 6, 1, 2, 4f);
+        for (int i = 0; i < 1000; i++) {
+            governor.update(10 * MILLIS, 100, 100);
+        }
+        assertEquals(governor.getVelocityIterations(), 2);
+        assertEquals(governor.getPositionIterations(), 1);
+        // Four velocity iterations, then one position iteration.
+        assertEquals(governor.getChangeCount(), 5);
+    }
+
+    @Test
+    public void WaitsBetweenChanges() {
+        PhysicsGovernor governor = new PhysicsGovernor(2, 6, 1, 2, 4f);
+        governor.update(10 * MILLIS, 100, 100);
+        assertEquals(governor.getVelocityIterations(), 5);
+        for (int i = 1; i < PhysicsGovernor.COOLDOWN_STEPS; i++) {
+            governor.update(10 * MILLIS, 100, 100);
+        }
+        assertEquals(governor.getVelocityIterations(), 5);
+        governor.update(10 * MILLIS, 100, 100);
+        assertEquals(governor.getVelocityIterations(), 4);
+    }
+
+    @Test
+    public void SurgesLowerQualityStraightAway() {
+        PhysicsGovernor governor = new PhysicsGovernor(2, 6, 1, 2, 4f);
+        for (int i = 0; i < 100; i++) {
+            governor.update(MILLIS, 100, 100);
+        }
+        assertEquals(governor.getChangeCount(), 0);
+        // Ten times the contacts predicts a step well over budget before one has been measured.
+        governor.update(MILLIS, 100, 1900);
+        assertEquals(governor.getVelocityIterations(), 5);
+    }
+
+    @Test
+    public void FastStepsRaiseQualityAgain() {
+        PhysicsGovernor governor = new PhysicsGovernor(2, 6, 1, 2, 4f);
+        for (int i = 0; i < 1000; i++) {
+            governor.update(10 * MILLIS, 100, 100);
+        }
+        for (int i = 0; i < 1000; i++) {
+            governor.update(MILLIS / 2, 100, 100);
+        }
+        assertEquals(governor.getVelocityIterations(), 6);
+        assertEquals(governor.getPositionIterations(), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RejectsBackwardsBounds() {
+        new PhysicsGovernor(6, 2, 1, 2, 4f);
+    }
+}
@@ -0,0 +1,61 @@
+package com.superduckinvaders.game.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the region map splits the map where walls seal it off.
+ */
+public class RegionMapTest {
+    private TileGrid grid;
+
+    @Before
+    public void setUp() {
+        // A 10x10 map split in two by a wall at x = 5, with a walled in room in the corner of the left half.
+        grid = new TileGrid(10, 10, 32, 32);
+        for (int i = 0; i < 10; i++) {
+            grid.block(5, i);
+        }
+        grid.block(0, 2);
+        grid.block(1, 2);
+        grid.block(2, 1);
+        grid.block(2, 0);
+    }
+
+    @Test
+    public void LabelsSealedOffAreas() {
+        RegionMap regions = new RegionMap(grid);
+        assertEquals(regions.getRegionCount(), 3);
+
+        int room = regions.getRegion(0, 0);
+        int left = regions.getRegion(4, 4);
+        int right = regions.getRegion(9, 9);
+        assertEquals(regions.getRegion(1, 1), room);
+        assertNotEquals(room, left);
+        assertNotEquals(left, right);
+        assertEquals(regions.getRegionSize(room), 4);
+        assertEquals(regions.getRegionSize(right), 40);
+    }
+
+    @Test
+    public void BlockedTilesHaveNoRegion() {
+        RegionMap regions = new RegionMap(grid);
+        assertEquals(regions.getRegion(5, 5), RegionMap.NO_REGION);
+        assertEquals(regions.getRegion(-1, 0), RegionMap.NO_REGION);
+    }
+
+    @Test
+    public void OnlyRulesOutDifferentRegions() {
+        RegionMap regions = new RegionMap(grid);
+        assertTrue(regions.mayConnect(16, 300, 150, 16));
+        assertFalse(regions.mayConnect(16, 16, 300, 16));
+        assertFalse(regions.mayConnect(16, 300, 300, 300));
+        // Points on a wall could be either side of it.
+        assertTrue(regions.mayConnect(176, 16, 300, 16));
+    }
+}
@@ -0,0 +1,80 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test snapshots are handed over whole and in order.
+ */
+public class SnapshotExchangeTest {
+    private static final TextureRegion SPRITE = new TextureRegion();
+
+    /**
+     * Fills in a snapshot whose contents all depend on which one it is, so a torn read would be noticed.
+     */
+    private static void fill(RenderSnapshot snapshot, int value) {
+        for (int i = 0; i < value % 50; i++) {
+            snapshot.addSprite(SPRITE, value, value);
+            snapshot.addMob(value, value);
+        }
+        snapshot.score = value;
+    }
+
+    @Test
+    public void StartsEmpty() {
+        SnapshotExchange exchange = new SnapshotExchange();
+        RenderSnapshot snapshot = exchange.acquire();
+        assertEquals(snapshot.getSequence(), 0);
+        assertEquals(snapshot.getSpriteCount(), 0);
+    }
+
+    @Test
+    public void HandsOverNewestSnapshot() {
+        SnapshotExchange exchange = new SnapshotExchange();
+        fill(exchange.beginSnapshot(), 3);
+        exchange.publish();
+        fill(exchange.beginSnapshot(), 7);
+        exchange.publish();
+
+        RenderSnapshot snapshot = exchange.acquire();
+        assertEquals(snapshot.score, 7);
+        assertEquals(snapshot.getSpriteCount(), 7);
+        assertSame(snapshot.getSprite(0), SPRITE);
+        // Nothing new was published, so the same snapshot is kept.
+        assertSame(exchange.acquire(), snapshot);
+    }
+
+    @Test
+    public void ConcurrentSnapshotsArriveWholeAndInOrder() throws InterruptedException {
+        final SnapshotExchange exchange = new SnapshotExchange();
+        final int count = 20000;
+        Thread producer = new Thread(() -> {
+            for (int value = 1; value <= count; value++) {
+                fill(exchange.beginSnapshot(), value);
+                exchange.publish();
+            }
+        });
+        producer.start();
+
+        long lastSequence = 0;
+        while (lastSequence < count) {
+            RenderSnapshot snapshot = exchange.acquire();
+            assertTrue(snapshot.getSequence() >= lastSequence);
+            lastSequence = snapshot.getSequence();
+            if (lastSequence > 0) {
+                int value = snapshot.score;
+                assertEquals(snapshot.getSequence(), value);
+                assertEquals(snapshot.getSpriteCount(), value % 50);
+                for (int i = 0; i < snapshot.getSpriteCount(); i++) {
+                    assertEquals(snapshot.getSpriteX(i), value, 0f);
+                    assertEquals(snapshot.getMobY(i), value, 0f);
+                }
+            }
+        }
+        producer.join();
+    }
+}
@@ -0,0 +1,111 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.utils.Array;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the grid used to find entities near a point.
+ */
+public class SpatialHashTest {
+    private SpatialHash<String> hash;
+    private Array<String> results;
+
+    @Before
+    public void setUp() {
+        hash = new SpatialHash<String>(640, 640, 64);
+        results = new Array<String>();
+    }
+
+    @Test
+    public void FindsBoxesInArea() {
+        hash.insert("near", 10, 10, 26, 26);
+        hash.insert("far", 400, 400, 416, 416);
+        hash.query(0, 0, 100, 100, results);
+        assertEquals(results.size, 1);
+        assertEquals(results.first(), "near");
+    }
+
+    @Test
+    public void FindsBoxesOverlappingFromAnotherCell() {
+        // Centred in the next cell over, but reaching back into the area.
+        hash.insert("wide", 50, 0, 150, 20);
+        hash.query(0, 0, 60, 10, results);
+        assertTrue(results.contains("wide", false));
+    }
+
+    @Test
+    public void MovedBoxesAreFoundWhereTheyAre() {
+        int handle = hash.insert("mover", 10, 10, 26, 26);
+        hash.move(handle, 300, 300, 316, 316);
+        hash.query(0, 0, 100, 100, results);
+        assertEquals(results.size, 0);
+        hash.query(290, 290, 320, 320, results);
+        assertEquals(results.size, 1);
+        assertEquals(hash.size(), 1);
+    }
+
+    @Test
+    public void RemovedBoxesAreNotFound() {
+        int first = hash.insert("first", 10, 10, 26, 26);
+        int second = hash.insert("second", 12, 12, 28, 28);
+        hash.remove(first);
+        hash.query(0, 0, 100, 100, results);
+        assertEquals(results.size, 1);
+        assertEquals(results.first(), "second");
+        assertEquals(hash.size(), 1);
+
+        // The handle is reused without disturbing the box still there.
+        assertEquals(hash.insert("third", 500, 500, 516, 516), first);
+        hash.remove(second);
+        hash.query(0, 0, 100, 100, results);
+        assertEquals(results.size, 0);
+    }
+
+    @Test
+    public void FindsBoxesWithinRadius() {
+        hash.insert("inside", 95, 95, 105, 105);
+        hash.insert("corner", 150, 150, 160, 160);
+        hash.insert("edge", 155, 95, 165, 105);
+        hash.queryRadius(100, 100, 60, results);
+        assertTrue(results.contains("inside", false));
+        assertTrue(results.contains("edge", false));
+        // Its nearest corner is about 71 pixels away.
+        assertFalse(results.contains("corner", false));
+    }
+
+    @Test
+    public void FindsNearestInOrder() {
+        hash.insert("third", 300, 100, 310, 110);
+        hash.insert("first", 110, 100, 120, 110);
+        hash.insert("fourth", 600, 600, 610, 610);
+        hash.insert("second", 100, 200, 110, 210);
+        hash.nearest(100, 100, 3, results);
+        assertEquals(results.size, 3);
+        assertEquals(results.get(0), "first");
+        assertEquals(results.get(1), "second");
+        assertEquals(results.get(2), "third");
+    }
+
+    @Test
+    public void FindsFewerNearestThanAskedIfThereAreFewer() {
+        hash.insert("only", 620, 620, 630, 630);
+        hash.nearest(0, 0, 4, results);
+        assertEquals(results.size, 1);
+        assertEquals(results.first(), "only");
+    }
+
+    @Test
+    public void ClearRemovesEverything() {
+        hash.insert("a", 10, 10, 20, 20);
+        hash.insert("b", 300, 300, 310, 310);
+        hash.clear();
+        hash.query(0, 0, 640, 640, results);
+        assertEquals(results.size, 0);
+        assertEquals(hash.size(), 0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.superduckinvaders.game.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test terrain lookups for points and boxes.
+ */
+public class TerrainMapTest {
+    private TerrainMap terrain;
+
+    @Before
+    public void setUp() {
+        // A 10x10 map of 32 pixel tiles with a river along x = 4 and a wall tile at (0, 0).
+        terrain = new TerrainMap(10, 10, 32, 32);
+        for (int y = 0; y < 10; y++) {
+            terrain.set(4, y, TerrainMap.Terrain.WATER);
+        }
+        terrain.set(0, 0, TerrainMap.Terrain.SOLID);
+    }
+
+    @Test
+    public void LooksUpTiles() {
+        assertEquals(terrain.get(4, 5), TerrainMap.Terrain.WATER);
+        assertEquals(terrain.get(5, 5), TerrainMap.Terrain.GROUND);
+        assertEquals(terrain.get(0, 0), TerrainMap.Terrain.SOLID);
+        assertEquals(terrain.getAt(140, 300), TerrainMap.Terrain.WATER);
+    }
+
+    @Test
+    public void OutsideMapIsSolid() {
+        assertEquals(terrain.get(-1, 0), TerrainMap.Terrain.SOLID);
+        assertEquals(terrain.get(0, 10), TerrainMap.Terrain.SOLID);
+    }
+
+    @Test
+    public void FindsTerrainUnderBox() {
+        // A 12x18 box whose right edge pokes a pixel into the river.
+        assertTrue(terrain.overlaps(TerrainMap.Terrain.WATER, 123, 100, 12, 18));
+        assertTrue(terrain.overlaps(TerrainMap.Terrain.WATER, 144, 100, 12, 18));
+        assertFalse(terrain.overlaps(TerrainMap.Terrain.WATER, 100, 100, 12, 18));
+    }
+
+    @Test
+    public void TouchingEdgeIsNotOverlapping() {
+        // The right edge of this box lies exactly on the river's left edge at x = 128.
+        assertFalse(terrain.overlaps(TerrainMap.Terrain.WATER, 122, 100, 12, 18));
+    }
+}
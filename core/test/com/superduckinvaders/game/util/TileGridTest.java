@@ -0,0 +1,101 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the packed tile grid used for pathfinding.
+ */
+public class TileGridTest {
+    private TileGrid grid;
+
+    @Before
+    public void setUp() {
+        grid = new TileGrid(10, 8, 32, 32);
+    }
+
+    @Test
+    public void StartsEmpty() {
+        for (int x = 0; x < grid.getWidth(); x++) {
+            for (int y = 0; y < grid.getHeight(); y++) {
+                assertFalse(grid.isBlocked(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void CanBlockTiles() {
+        grid.block(3, 4);
+        grid.block(9, 7);
+        assertTrue(grid.isBlocked(3, 4));
+        assertTrue(grid.isBlocked(9, 7));
+        assertFalse(grid.isBlocked(4, 3));
+        assertTrue(grid.isBlocked(grid.index(3, 4)));
+    }
+
+    @Test
+    public void OutsideIsBlocked() {
+        assertTrue(grid.isBlocked(-1, 0));
+        assertTrue(grid.isBlocked(0, -1));
+        assertTrue(grid.isBlocked(10, 0));
+        assertTrue(grid.isBlocked(0, 8));
+        assertTrue(grid.isBlockedAt(-0.5f, 10f));
+    }
+
+    @Test
+    public void ConvertsPixelsToTiles() {
+        grid.block(2, 1);
+        assertTrue(grid.isBlockedAt(64f, 32f));
+        assertTrue(grid.isBlockedAt(95.9f, 63.9f));
+        assertFalse(grid.isBlockedAt(96f, 32f));
+        assertEquals(grid.toTileX(95.9f), 2);
+        assertEquals(grid.toTileY(-1f), -1);
+    }
+
+    @Test
+    public void IndexRoundTrips() {
+        int index = grid.index(7, 5);
+        assertEquals(grid.tileX(index), 7);
+        assertEquals(grid.tileY(index), 5);
+    }
+
+    @Test
+    public void BlocksLayerCells() {
+        TiledMapTileLayer layer = new TiledMapTileLayer(10, 8, 32, 32);
+        layer.setCell(1, 2, new TiledMapTileLayer.Cell());
+        layer.setCell(6, 6, new TiledMapTileLayer.Cell());
+        grid.blockLayer(layer);
+        grid.blockLayer(null);
+        assertTrue(grid.isBlocked(1, 2));
+        assertTrue(grid.isBlocked(6, 6));
+        assertFalse(grid.isBlocked(2, 1));
+    }
+
+    @Test
+    public void AreaTouchingBlockedTileIsBlocked() {
+        grid.block(3, 3);
+        assertTrue(grid.isAreaBlocked(90f, 90f, 100f, 100f));
+        assertTrue(grid.isAreaBlocked(64f, 64f, 96f, 96f));
+        assertFalse(grid.isAreaBlocked(64f, 64f, 95.9f, 95.9f));
+        assertFalse(grid.isAreaBlocked(128f, 0f, 200f, 200f));
+        assertTrue(grid.isAreaBlocked(300f, 10f, 330f, 20f));
+    }
+
+    @Test
+    public void MovesStopShortOfBlockedTiles() {
+        grid.block(4, 1);
+        // A 16x16 box in tile (2, 1), moving right into the blocked tile at x = 128.
+        assertEquals(grid.clipMoveX(70, 40, 86, 56, 10), 10f, 0);
+        assertEquals(grid.clipMoveX(70, 40, 86, 56, 100), 128 - 86 - TileGrid.CLIP_GAP, 0.001f);
+        // Moving left runs into the map edge.
+        assertEquals(grid.clipMoveX(70, 40, 86, 56, -100), -70 + TileGrid.CLIP_GAP, 0.001f);
+        // Nothing above or below.
+        assertEquals(grid.clipMoveY(70, 40, 86, 56, 100), 100f, 0);
+        assertEquals(grid.clipMoveY(100, 40, 116, 56, 0), 0f, 0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.loaders.resolvers.LocalFileHandleResolver;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.Rectangle;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test merging tiles into rectangles covers exactly the blocked tiles.
+ */
+@RunWith(LwjglTestRunner.class)
+public class TileRectanglesTest {
+    private static final String[] MAPS = {
+            "map", "James", "Halifax", "QuietPlace", "bridges", "Library", "HesEast", "Compsci"
+    };
+
+    /**
+     * Checks every blocked tile is in exactly one rectangle and no free tile is in any.
+     */
+    private void assertExactCover(TileGrid grid, List<Rectangle> rectangles) {
+        int[] cover = new int[grid.getWidth() * grid.getHeight()];
+        for (Rectangle rectangle : rectangles) {
+            for (int x = (int) rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                for (int y = (int) rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                    assertTrue(grid.inBounds(x, y));
+                    cover[grid.index(x, y)]++;
+                }
+            }
+        }
+        for (int i = 0; i < cover.length; i++) {
+            assertEquals(cover[i], grid.isBlocked(i) ? 1 : 0);
+        }
+    }
+
+    @Test
+    public void MergesBlockIntoOneRectangle() {
+        TileGrid grid = new TileGrid(10, 10, 32, 32);
+        for (int x = 2; x < 6; x++) {
+            for (int y = 3; y < 8; y++) {
+                grid.block(x, y);
+            }
+        }
+        List<Rectangle> rectangles = TileRectangles.merge(grid);
+        assertEquals(rectangles.size(), 1);
+        assertEquals(rectangles.get(0), new Rectangle(2, 3, 4, 5));
+    }
+
+    @Test
+    public void EmptyGridHasNoRectangles() {
+        assertTrue(TileRectangles.merge(new TileGrid(10, 10, 32, 32)).isEmpty());
+    }
+
+    @Test
+    public void CoversRandomGridsExactly() {
+        Random random = new Random(9);
+        for (int i = 0; i < 20; i++) {
+            TileGrid grid = new TileGrid(30, 20, 32, 32);
+            for (int j = 0; j < 200; j++) {
+                grid.block(random.nextInt(30), random.nextInt(20));
+            }
+            assertExactCover(grid, TileRectangles.merge(grid));
+        }
+    }
+
+    @Test
+    public void CoversLevelMapsWithFewerBodies() {
+        Gdx.gl = Gdx.gl20 = mock(GL20.class);
+        TmxMapLoader loader = new TmxMapLoader(new LocalFileHandleResolver());
+
+        for (String name : MAPS) {
+            TiledMap map = loader.load("assets/maps/" + name + ".tmx");
+            TiledMapTileLayer collision = (TiledMapTileLayer) map.getLayers().get("Collision");
+            TileGrid solid = new TileGrid(collision.getWidth(), collision.getHeight(), 32, 32);
+            solid.blockLayer(collision);
+            solid.blockLayer((TiledMapTileLayer) map.getLayers().get("Obstacles0"));
+            TileGrid water = new TileGrid(collision.getWidth(), collision.getHeight(), 32, 32);
+            water.blockLayer((TiledMapTileLayer) map.getLayers().get("Water"));
+            map.dispose();
+
+            List<Rectangle> solidRectangles = TileRectangles.merge(solid);
+            List<Rectangle> waterRectangles = TileRectangles.merge(water);
+            assertExactCover(solid, solidRectangles);
+            assertExactCover(water, waterRectangles);
+
+            int solidTiles = 0, waterTiles = 0;
+            for (int i = 0; i < collision.getWidth() * collision.getHeight(); i++) {
+                solidTiles += solid.isBlocked(i) ? 1 : 0;
+                waterTiles += water.isBlocked(i) ? 1 : 0;
+            }
+            assertFalse(solidRectangles.size() > solidTiles);
+            System.out.println(String.format("%-10s walls %4d tiles -> %3d bodies | water %4d tiles -> %3d bodies",
+                    name, solidTiles, solidRectangles.size(), waterTiles, waterRectangles.size()));
+        }
+    }
+}